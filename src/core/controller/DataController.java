@@ -0,0 +1,140 @@
+// core.controller.DataController.java
+package core.controller;
+
+import core.responses.Response;
+import core.responses.Status;
+import core.functions.LoadCoordinator;
+import core.storage.BinarySnapshot;
+import core.storage.DataProcessor;
+import core.storage.DataReloader;
+import core.storage.FlightStorage;
+import core.storage.LocationStorage;
+import core.storage.PassengerStorage;
+import core.storage.PlaneStorage;
+import core.storage.StringDictionary;
+import core.storage.WriteAheadLog;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+
+public class DataController {
+
+    private static DataReloader reloader;
+
+    public static Response loadAllFromJson(String planesPath, String passengersPath, String locationsPath, String flightsPath) {
+        try {
+            Map<String, Duration> timings = new LoadCoordinator().load(planesPath, passengersPath, locationsPath, flightsPath).join();
+            return new Response("Data loaded successfully! 📦", Status.OK, timings);
+        } catch (Exception e) {
+            return new Response("Could not load data. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public static Response watchJsonFiles(String planesPath, String passengersPath, String locationsPath, String flightsPath) {
+        try {
+            stopWatchingJsonFiles();
+            DataReloader started = new DataReloader(
+                FlightStorage.getInstance(),
+                PlaneStorage.getInstance(),
+                LocationStorage.getInstance(),
+                PassengerStorage.getInstance(),
+                planesPath, passengersPath, locationsPath, flightsPath
+            );
+            started.start();
+            reloader = started;
+            return new Response("Watching data files for changes! 👀", Status.OK);
+        } catch (Exception e) {
+            return new Response("Could not watch the data files. Changes will need a restart. 😔", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public static Response stopWatchingJsonFiles() {
+        try {
+            if (reloader != null) {
+                reloader.stop();
+                reloader = null;
+            }
+            return new Response("Stopped watching data files. 🛑", Status.OK);
+        } catch (Exception e) {
+            return new Response("Could not stop watching the data files. 😔", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public static Response getDictionaryReport() {
+        try {
+            return new Response("Dictionary report retrieved successfully! 📊", Status.OK, StringDictionary.getInstance().getReport());
+        } catch (Exception e) {
+            return new Response("Could not build the dictionary report. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR, new ArrayList<>());
+        }
+    }
+
+    public static Response setColumnarFlights(boolean columnar) {
+        try {
+            int moved = FlightStorage.getInstance().setColumnar(columnar);
+            return new Response(columnar ? "Flights are now kept in compact columns! 🗜️" : "Flights are now kept on the heap! 📚", Status.OK, moved);
+        } catch (Exception e) {
+            return new Response("Could not change how flights are stored. 😔", Status.INTERNAL_SERVER_ERROR, 0);
+        }
+    }
+
+    public static Response loadSnapshot(String path) {
+        try {
+            if (!Files.exists(Path.of(path))) {
+                return new Response("No saved snapshot was found. 📂", Status.NOT_FOUND, 0L);
+            }
+            long lsn = createSnapshot().read(Path.of(path));
+            return new Response("Snapshot loaded successfully! 💾", Status.OK, lsn);
+        } catch (Exception e) {
+            return new Response("Could not load the saved snapshot. 😔", Status.INTERNAL_SERVER_ERROR, 0L);
+        }
+    }
+
+    public static Response saveSnapshot(String path) {
+        try {
+            WriteAheadLog log = WriteAheadLog.getInstance();
+            long lsn = createSnapshot().write(Path.of(path), log);
+            log.checkpoint(lsn);
+            return new Response("Snapshot saved successfully! 💾", Status.OK);
+        } catch (Exception e) {
+            return new Response("Could not save the snapshot. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public static Response recoverFromLog(String path, long afterLsn) {
+        try {
+            int applied = WriteAheadLog.getInstance().recover(Path.of(path), WriteAheadLog.SyncPolicy.INTERVAL, afterLsn);
+            return new Response("Recovered " + applied + " saved changes! 💾", Status.OK);
+        } catch (Exception e) {
+            return new Response("Could not recover saved changes. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public static Response closeLog() {
+        try {
+            WriteAheadLog.getInstance().close();
+            return new Response("Changes saved successfully! 💾", Status.OK);
+        } catch (Exception e) {
+            return new Response("Could not save changes. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    static DataProcessor createProcessor() {
+        return new DataProcessor(
+            FlightStorage.getInstance(),
+            PlaneStorage.getInstance(),
+            LocationStorage.getInstance(),
+            PassengerStorage.getInstance()
+        );
+    }
+
+    private static BinarySnapshot createSnapshot() {
+        return new BinarySnapshot(
+            FlightStorage.getInstance(),
+            PlaneStorage.getInstance(),
+            LocationStorage.getInstance(),
+            PassengerStorage.getInstance()
+        );
+    }
+}
@@ -11,7 +11,10 @@ import core.storage.LocationStorage;
 import core.storage.PlaneStorage;
 import core.storage.PassengerStorage; // Added for DataProcessor constructor
 import core.storage.DataProcessor; // Changed import
+import core.storage.Page;
+import core.storage.WriteAheadLog;
 import core.functions.FlightCoordinator;
+import core.functions.WaitlistEngine;
 import core.functions.Functions;
 import java.time.DateTimeException;
 import java.time.LocalDate;
@@ -46,7 +49,7 @@ public class FlightController {
 
     public static Response getAllFlights() {
         try {
-            List<Flight> flights = Functions.FlightOrderer(FlightStorage.getInstance().getAll());
+            List<Flight> flights = FlightStorage.getInstance().getSnapshot();
             return new Response("Flights retrieved successfully! ✅", Status.OK, flights);
         } catch (Exception e) {
             return new Response("Could not retrieve flights. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR, new ArrayList<>());
@@ -55,26 +58,39 @@ public class FlightController {
 
     public static Response getFlightsWithFormat() {
         try {
-            List<Flight> flights = (List<Flight>) getAllFlights().getObject();
-            ArrayList<String[]> data = flights.stream().map(flight -> {
-                LocalDateTime arrivalDate = Functions.ArrivalCalculation(flight);
-                return new String[]{
-                    flight.getId(),
-                    flight.getDepartureLocation().getAirportId(),
-                    flight.getArrivalLocation().getAirportId(),
-                    flight.getScaleLocation() != null ? flight.getScaleLocation().getAirportId() : "-",
-                    flight.getDepartureDate().toString(),
-                    arrivalDate.toString(),
-                    flight.getPlane().getId(),
-                    String.valueOf(flight.getNumPassengers())
-                };
-            }).collect(Collectors.toCollection(ArrayList::new));
+            List<Flight> flights = getAllFlights().getList(Flight.class);
+            ArrayList<String[]> data = flights.stream().map(FlightController::formatFlight).collect(Collectors.toCollection(ArrayList::new));
             return new Response("Flights retrieved successfully! 📋", Status.OK, data);
         } catch (Exception e) {
             return new Response("Could not retrieve formatted flights. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR, new ArrayList<>());
         }
     }
 
+    public static Response getFlightsPageWithFormat(String token, int limit) {
+        try {
+            Page<String[]> page = FlightStorage.getInstance().getPageAfter(token, limit).map(FlightController::formatFlight);
+            return new Response("Flights retrieved successfully! 📋", Status.OK, page);
+        } catch (IllegalArgumentException e) {
+            return new Response(e.getMessage(), Status.BAD_REQUEST);
+        } catch (Exception e) {
+            return new Response("Could not retrieve formatted flights. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public static String[] formatFlight(Flight flight) {
+        LocalDateTime arrivalDate = Functions.ArrivalCalculation(flight);
+        return new String[]{
+            flight.getId(),
+            flight.getDepartureLocation().getAirportId(),
+            flight.getArrivalLocation().getAirportId(),
+            flight.getScaleLocation() != null ? flight.getScaleLocation().getAirportId() : "-",
+            flight.getDepartureDate().toString(),
+            arrivalDate.toString(),
+            flight.getPlane().getId(),
+            String.valueOf(flight.getNumPassengers())
+        };
+    }
+
     public static Response addFlight(String id, String planeId, String departureId, String arrivalId,
                                      String year, String month, String day, String hour, String minutes,
                                      String hoursArrivalStr, String minutesArrivalStr,
@@ -116,7 +132,17 @@ public class FlightController {
                     ? new Flight(id, plane, departure, scale, arrival, departureLocalDate, hoursArrival, minutesArrival, hoursScale, minutesScale)
                     : new Flight(id, plane, departure, arrival, departureLocalDate, hoursArrival, minutesArrival);
 
-            FlightStorage.getInstance().add(flight);
+            WriteAheadLog log = WriteAheadLog.getInstance();
+            log.beginChange();
+            try {
+                long lsn = log.logAddFlight(flight);
+                if (!FlightStorage.getInstance().add(flight)) {
+                    log.abort(lsn);
+                    throw new IllegalArgumentException("A flight with this ID already exists. 🆔");
+                }
+            } finally {
+                log.endChange();
+            }
             return new Response("Flight added successfully! ✨", Status.CREATED);
         } catch (IllegalArgumentException e) {
             return new Response(e.getMessage(), Status.BAD_REQUEST);
@@ -128,7 +154,25 @@ public class FlightController {
     public static Response delayFlight(String flightId, String hour, String minutes) {
         try {
             Flight flight = getRequiredFlight(flightId);
-            new FlightCoordinator().delay(flight, parseTimePart(hour, "hour"), parseTimePart(minutes, "minute"));
+            int delayHours = parseTimePart(hour, "hour");
+            int delayMinutes = parseTimePart(minutes, "minute");
+            WriteAheadLog log = WriteAheadLog.getInstance();
+            FlightCoordinator coordinator = new FlightCoordinator();
+            // If another change replaced the flight first, its record is voided and the delay is worked out again.
+            while (true) {
+                LocalDateTime departureDate = flight.getDepartureDate().plusHours(delayHours).plusMinutes(delayMinutes);
+                log.beginChange();
+                try {
+                    long lsn = log.logReschedule(flight, departureDate);
+                    if (coordinator.reschedule(flight, departureDate) != null) {
+                        break;
+                    }
+                    log.abort(lsn);
+                } finally {
+                    log.endChange();
+                }
+                flight = getRequiredFlight(flightId);
+            }
             return new Response("Flight delayed successfully! ⏰", Status.OK);
         } catch (IllegalArgumentException e) {
             return new Response(e.getMessage(), Status.BAD_REQUEST);
@@ -149,6 +193,44 @@ public class FlightController {
         }
     }
 
+    // Moving to a bigger plane books waiting passengers into the extra seats.
+    public static Response changePlane(String flightId, String planeId) {
+        try {
+            Flight flight = getRequiredFlight(flightId);
+            Plane plane = getRequiredPlane(planeId);
+            WriteAheadLog log = WriteAheadLog.getInstance();
+            FlightCoordinator coordinator = new FlightCoordinator();
+            while (true) {
+                if (flight.getPlane() == plane) {
+                    throw new IllegalArgumentException("The flight already uses this plane. ✈️🔁");
+                }
+                int booked = flight.getNumPassengers();
+                if (plane.getMaxCapacity() < booked) {
+                    throw new IllegalArgumentException("The plane only has " + plane.getMaxCapacity() + " seats for " + booked + " booked passengers. 💺🚫");
+                }
+                log.beginChange();
+                try {
+                    long lsn = log.logChangePlane(flight, plane);
+                    Flight changed = coordinator.changePlane(flight, plane);
+                    if (changed != null) {
+                        flight = changed;
+                        break;
+                    }
+                    log.abort(lsn);
+                } finally {
+                    log.endChange();
+                }
+                flight = getRequiredFlight(flightId);
+            }
+            int promoted = WaitlistEngine.getInstance().promote(flight).size();
+            return new Response("Flight plane changed successfully! 🔄✈️", Status.OK, promoted);
+        } catch (IllegalArgumentException e) {
+            return new Response(e.getMessage(), Status.BAD_REQUEST);
+        } catch (Exception e) {
+            return new Response("An unexpected error occurred while changing the plane. Please try again. 🚫", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     public static Plane getRequiredPlane(String planeId) {
         Plane plane = PlaneStorage.getInstance().get(planeId);
         if (plane == null) {
@@ -8,8 +8,10 @@ import core.storage.LocationStorage;
 import core.storage.PlaneStorage;
 import core.storage.FlightStorage;
 import core.storage.PassengerStorage;
+import core.storage.Page;
+import core.storage.StringDictionary;
+import core.storage.WriteAheadLog;
 import core.storage.DataProcessor; // Changed import
-import core.functions.Functions;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -34,7 +36,7 @@ public class LocationController {
 
     public static Response getAllLocations() {
         try {
-            List<Location> locations = Functions.LocationOrderer(LocationStorage.getInstance().getAll());
+            List<Location> locations = LocationStorage.getInstance().getSnapshot();
             return new Response("Locations retrieved successfully! ✅", Status.OK, locations);
         } catch (Exception e) {
             return new Response("Could not retrieve locations. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR, new ArrayList<>());
@@ -43,19 +45,34 @@ public class LocationController {
 
     public static Response getLocationsWithFormat() {
         try {
-            List<Location> locations = (List<Location>) getAllLocations().getObject();
-            ArrayList<String[]> data = locations.stream().map(location -> new String[]{
-                location.getAirportId(),
-                location.getAirportName(),
-                location.getAirportCity(),
-                location.getAirportCountry()
-            }).collect(Collectors.toCollection(ArrayList::new));
+            List<Location> locations = getAllLocations().getList(Location.class);
+            ArrayList<String[]> data = locations.stream().map(LocationController::formatLocation).collect(Collectors.toCollection(ArrayList::new));
             return new Response("Locations retrieved successfully! 📋", Status.OK, data);
         } catch (Exception e) {
             return new Response("Could not retrieve formatted locations. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR, new ArrayList<>());
         }
     }
 
+    public static Response getLocationsPageWithFormat(String token, int limit) {
+        try {
+            Page<String[]> page = LocationStorage.getInstance().getPageAfter(token, limit).map(LocationController::formatLocation);
+            return new Response("Locations retrieved successfully! 📋", Status.OK, page);
+        } catch (IllegalArgumentException e) {
+            return new Response(e.getMessage(), Status.BAD_REQUEST);
+        } catch (Exception e) {
+            return new Response("Could not retrieve formatted locations. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public static String[] formatLocation(Location location) {
+        return new String[]{
+            location.getAirportId(),
+            location.getAirportName(),
+            location.getAirportCity(),
+            location.getAirportCountry()
+        };
+    }
+
     public static Response addLocation(String id, String name, String city, String country, String longitudeStr, String latitudeStr) {
         try {
             validateLocationId(id);
@@ -65,9 +82,23 @@ public class LocationController {
             validateStringField(name, "The name");
             validateStringField(city, "The city");
             validateStringField(country, "The country");
-            LocationStorage.getInstance().add(new Location(id, name, city, country,
+            StringDictionary dictionary = StringDictionary.getInstance();
+            Location location = new Location(id, name,
+                    dictionary.canonicalize(StringDictionary.Field.LOCATION_CITY, city),
+                    dictionary.canonicalize(StringDictionary.Field.LOCATION_COUNTRY, country),
                     parseCoordinate(longitudeStr, "longitude", -180, 180),
-                    parseCoordinate(latitudeStr, "latitude", -90, 90)));
+                    parseCoordinate(latitudeStr, "latitude", -90, 90));
+            WriteAheadLog log = WriteAheadLog.getInstance();
+            log.beginChange();
+            try {
+                long lsn = log.logAddLocation(location);
+                if (!LocationStorage.getInstance().add(location)) {
+                    log.abort(lsn);
+                    throw new IllegalArgumentException("A location with this ID already exists. 🆔");
+                }
+            } finally {
+                log.endChange();
+            }
             return new Response("Location added successfully! ✨", Status.CREATED);
         } catch (IllegalArgumentException e) {
             return new Response(e.getMessage(), Status.BAD_REQUEST);
@@ -5,18 +5,23 @@ import core.responses.Response;
 import core.responses.Status;
 import core.model.Flight;
 import core.model.Passenger;
+import core.storage.BookingStore;
 import core.storage.FlightStorage;
 import core.storage.PassengerStorage;
-import core.storage.LocationStorage; // Added for DataProcessor
-import core.storage.PlaneStorage; // Added for DataProcessor
-import core.storage.DataProcessor; // Changed import
+import core.storage.Page;
+import core.storage.StringDictionary;
+import core.storage.WriteAheadLog;
 import core.design.observer.UserManager;
 import core.functions.PassengerManager;
+import core.functions.ReservationEngine;
+import core.functions.WaitlistEngine;
 import core.functions.Functions;
 import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,14 +33,7 @@ public class PassengerController {
 
     public static Response loadPassengersFromJson(String path) {
         try {
-            // Instantiate DataProcessor with all required deposits
-            DataProcessor dataLoader = new DataProcessor(
-                FlightStorage.getInstance(),
-                PlaneStorage.getInstance(),
-                LocationStorage.getInstance(),
-                PassengerStorage.getInstance()
-            );
-            dataLoader.loadPassengersFromFile(path); // Pass the path directly
+            DataController.createProcessor().loadPassengersFromFile(path);
             return new Response("Passengers loaded successfully! 👥", Status.OK);
         } catch (Exception e) {
             return new Response("Could not load passengers. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR);
@@ -44,7 +42,7 @@ public class PassengerController {
 
     public static Response getAllPassengers() {
         try {
-            List<Passenger> passengers = Functions.PassengerOrderer(PassengerStorage.getInstance().getAll());
+            List<Passenger> passengers = PassengerStorage.getInstance().getSnapshot();
             return new Response("Passengers retrieved successfully! ✅", Status.OK, passengers);
         } catch (Exception e) {
             return new Response("Could not retrieve passengers. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR, new ArrayList<>());
@@ -53,30 +51,43 @@ public class PassengerController {
 
     public static Response getPassengersWithFormat() {
         try {
-            List<Passenger> passengers = (List<Passenger>) getAllPassengers().getObject();
-            ArrayList<String[]> data = passengers.stream().map(passenger -> {
-                int passengerAge = Functions.AgeCalculation(passenger.getBirthDate());
-                String fullPhone = "+" + passenger.getCountryPhoneCode() + " " + passenger.getPhone();
-                return new String[]{
-                    String.valueOf(passenger.getId()),
-                    passenger.getFullname(),
-                    passenger.getBirthDate().toString(),
-                    String.valueOf(passengerAge),
-                    fullPhone,
-                    passenger.getCountry(),
-                    String.valueOf(passenger.getNumFlights())
-                };
-            }).collect(Collectors.toCollection(ArrayList::new));
+            List<Passenger> passengers = getAllPassengers().getList(Passenger.class);
+            ArrayList<String[]> data = passengers.stream().map(PassengerController::formatPassenger).collect(Collectors.toCollection(ArrayList::new));
             return new Response("Passengers retrieved successfully! 📋", Status.OK, data);
         } catch (Exception e) {
             return new Response("Could not retrieve formatted passengers. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR, new ArrayList<>());
         }
     }
 
+    public static Response getPassengersPageWithFormat(String token, int limit) {
+        try {
+            Page<String[]> page = PassengerStorage.getInstance().getPageAfter(token, limit).map(PassengerController::formatPassenger);
+            return new Response("Passengers retrieved successfully! 📋", Status.OK, page);
+        } catch (IllegalArgumentException e) {
+            return new Response(e.getMessage(), Status.BAD_REQUEST);
+        } catch (Exception e) {
+            return new Response("Could not retrieve formatted passengers. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public static String[] formatPassenger(Passenger passenger) {
+        int passengerAge = Functions.AgeCalculation(passenger.getBirthDate());
+        String fullPhone = "+" + passenger.getCountryPhoneCode() + " " + passenger.getPhone();
+        return new String[]{
+            String.valueOf(passenger.getId()),
+            passenger.getFullname(),
+            passenger.getBirthDate().toString(),
+            String.valueOf(passengerAge),
+            fullPhone,
+            passenger.getCountry(),
+            String.valueOf(passenger.getNumFlights())
+        };
+    }
+
     public static Response addPassenger(String id, String firstname, String lastname, String year, String month, String day, String countryPhoneCode, String phone, String country) {
         try {
             long longId = parsePassengerId(id);
-            if (PassengerStorage.getInstance().get(id) != null) {
+            if (PassengerStorage.getInstance().get(longId) != null) {
                 throw new IllegalArgumentException("A passenger with this ID already exists. 🆔");
             }
             validateStringField(firstname, "The first name");
@@ -85,7 +96,19 @@ public class PassengerController {
             LocalDate birthDate = parseBirthDate(year, month, day);
             int intPhoneCode = parsePhoneCode(countryPhoneCode);
             long longPhone = parsePhoneNumber(phone);
-            PassengerStorage.getInstance().add(new Passenger(longId, firstname, lastname, birthDate, intPhoneCode, longPhone, country));
+            Passenger passenger = new Passenger(longId, firstname, lastname, birthDate, intPhoneCode, longPhone,
+                    StringDictionary.getInstance().canonicalize(StringDictionary.Field.PASSENGER_COUNTRY, country));
+            WriteAheadLog log = WriteAheadLog.getInstance();
+            log.beginChange();
+            try {
+                long lsn = log.logAddPassenger(passenger);
+                if (!PassengerStorage.getInstance().add(passenger)) {
+                    log.abort(lsn);
+                    throw new IllegalArgumentException("A passenger with this ID already exists. 🆔");
+                }
+            } finally {
+                log.endChange();
+            }
             return new Response("Passenger created successfully! ✨", Status.CREATED);
         } catch (IllegalArgumentException e) {
             return new Response(e.getMessage(), Status.BAD_REQUEST);
@@ -97,7 +120,7 @@ public class PassengerController {
     public static Response updatePassenger(String id, String firstname, String lastname, String year, String month, String day, String countryPhoneCode, String phone, String country) {
         try {
             long longId = parsePassengerId(id);
-            Passenger passenger = getRequiredPassenger(id);
+            Passenger passenger = getRequiredPassenger(longId);
             validateStringField(firstname, "The first name");
             validateStringField(lastname, "The last name");
             validateStringField(country, "The country");
@@ -105,9 +128,18 @@ public class PassengerController {
             int intPhoneCode = parsePhoneCode(countryPhoneCode);
             long longPhone = parsePhoneNumber(phone);
 
-            Passenger updatedPassenger = new Passenger(longId, firstname, lastname, birthDate, intPhoneCode, longPhone, country);
-            if (!PassengerStorage.getInstance().update(updatedPassenger)) {
-                throw new IllegalStateException("Could not update passenger in the database. 💾");
+            Passenger updatedPassenger = new Passenger(longId, firstname, lastname, birthDate, intPhoneCode, longPhone,
+                    StringDictionary.getInstance().canonicalize(StringDictionary.Field.PASSENGER_COUNTRY, country));
+            WriteAheadLog log = WriteAheadLog.getInstance();
+            log.beginChange();
+            try {
+                long lsn = log.logUpdatePassenger(updatedPassenger);
+                if (!PassengerStorage.getInstance().update(updatedPassenger)) {
+                    log.abort(lsn);
+                    throw new IllegalStateException("Could not update passenger in the database. 💾");
+                }
+            } finally {
+                log.endChange();
             }
             return new Response("Passenger data updated successfully! ✏️", Status.OK);
         } catch (IllegalArgumentException | IllegalStateException e) {
@@ -118,14 +150,42 @@ public class PassengerController {
     }
 
     public static Response addToFlight(String passengerId, String flightId) {
+        return addToFlight(passengerId, flightId, WaitlistEngine.Priority.ECONOMY.name());
+    }
+
+    // When the flight is full the passenger joins its waitlist with the given priority class.
+    public static Response addToFlight(String passengerId, String flightId, String priorityClass) {
         try {
             Passenger passenger = getRequiredPassenger(passengerId);
             Flight flight = getRequiredFlight(flightId);
+            WaitlistEngine.Priority priority = parsePriority(priorityClass);
 
-            if (flight.getNumPassengers() == flight.getPlane().getMaxCapacity()) {
-                throw new IllegalArgumentException("The flight is full. No more passengers can be added. 🚫");
+            if (BookingStore.getInstance().isBooked(flight, passenger)) {
+                throw new IllegalArgumentException("The passenger is already booked on this flight. 🔁");
+            }
+            ReservationEngine reservations = ReservationEngine.getInstance();
+            if (!reservations.reserve(flight)) {
+                int waiting = WaitlistEngine.getInstance().enqueue(flight, passenger, priority);
+                if (waiting < 0) {
+                    throw new IllegalArgumentException("The passenger is already on the waitlist for this flight. ⏳");
+                }
+                return new Response("The flight is full. The passenger was added to the waitlist (" + waiting + " waiting). ⏳", Status.OK, waiting);
+            }
+            WriteAheadLog log = WriteAheadLog.getInstance();
+            log.beginChange();
+            try {
+                long lsn = 0;
+                try {
+                    lsn = log.logBooking(passenger, flight);
+                    new PassengerManager().addPassenger(flight, passenger);
+                } catch (Exception e) {
+                    release(List.of(flight), 1);
+                    log.abort(lsn);
+                    throw e;
+                }
+            } finally {
+                log.endChange();
             }
-            new PassengerManager().addPassenger(flight, passenger);
             return new Response("Passenger added to flight successfully! ➕✈️", Status.OK);
         } catch (IllegalArgumentException e) {
             return new Response(e.getMessage(), Status.BAD_REQUEST);
@@ -134,6 +194,129 @@ public class PassengerController {
         }
     }
 
+    /**
+     * Removes the passenger from the flight, or from its waitlist, and books
+     * waiting passengers into any seat that frees up.
+     */
+    public static Response removeFromFlight(String passengerId, String flightId) {
+        try {
+            Passenger passenger = getRequiredPassenger(passengerId);
+            Flight flight = getRequiredFlight(flightId);
+
+            if (WaitlistEngine.getInstance().remove(flight, passenger)) {
+                return new Response("Passenger removed from the waitlist successfully! ➖⏳", Status.OK, 0);
+            }
+            if (!BookingStore.getInstance().isBooked(flight, passenger)) {
+                throw new IllegalArgumentException("The passenger is not booked on this flight. 🔍❌");
+            }
+            WriteAheadLog log = WriteAheadLog.getInstance();
+            log.beginChange();
+            try {
+                long lsn = log.logCancellation(passenger, flight);
+                if (!ReservationEngine.getInstance().cancel(flight, passenger)) {
+                    log.abort(lsn);
+                    throw new IllegalArgumentException("The passenger is not booked on this flight. 🔍❌");
+                }
+            } finally {
+                log.endChange();
+            }
+            int promoted = WaitlistEngine.getInstance().promote(flight).size();
+            return new Response("Passenger removed from flight successfully! ➖✈️", Status.OK, promoted);
+        } catch (IllegalArgumentException e) {
+            return new Response(e.getMessage(), Status.BAD_REQUEST);
+        } catch (Exception e) {
+            return new Response("An unexpected error occurred while removing the passenger from the flight. Please try again. 🚫", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public static Response addToFlight(List<String> passengerIds, String flightId) {
+        return addToFlights(passengerIds, List.of(flightId));
+    }
+
+    /**
+     * Books every listed passenger on every listed flight, or none of them if
+     * any passenger is already booked or any flight lacks the seats.
+     */
+    public static Response addToFlights(List<String> passengerIds, List<String> flightIds) {
+        ReservationEngine reservations = ReservationEngine.getInstance();
+        LinkedHashMap<String, Flight> reserved = new LinkedHashMap<>();
+        int seats = 0;
+        try {
+            if (passengerIds == null || passengerIds.isEmpty() || flightIds == null || flightIds.isEmpty()) {
+                throw new IllegalArgumentException("Select at least one passenger and one flight. 📝🚫");
+            }
+            LinkedHashMap<Long, Passenger> passengers = new LinkedHashMap<>();
+            for (String passengerId : passengerIds) {
+                Passenger passenger = getRequiredPassenger(passengerId);
+                if (passengers.put(passenger.getId(), passenger) != null) {
+                    throw new IllegalArgumentException("Passenger " + passenger.getId() + " is listed more than once. 🔁");
+                }
+            }
+            LinkedHashMap<String, Flight> flights = new LinkedHashMap<>();
+            for (String flightId : flightIds) {
+                Flight flight = getRequiredFlight(flightId);
+                if (flights.put(flight.getId(), flight) != null) {
+                    throw new IllegalArgumentException("Flight " + flight.getId() + " is listed more than once. 🔁");
+                }
+                for (Passenger passenger : passengers.values()) {
+                    if (BookingStore.getInstance().isBooked(flight, passenger)) {
+                        throw new IllegalArgumentException("Passenger " + passenger.getId() + " is already booked on flight " + flight.getId() + ". 🔁");
+                    }
+                }
+            }
+            seats = passengers.size();
+            for (Flight flight : flights.values()) {
+                if (!reservations.reserve(flight, seats)) {
+                    throw new IllegalArgumentException("Flight " + flight.getId() + " does not have " + seats + " free seats. 🚫");
+                }
+                reserved.put(flight.getId(), flight);
+            }
+            WriteAheadLog log = WriteAheadLog.getInstance();
+            log.beginChange();
+            try {
+                long lsn = log.logBookings(passengers.values(), flights.values());
+                try {
+                    new PassengerManager().addPassengers(flights.values(), passengers.values());
+                } catch (RuntimeException e) {
+                    log.abort(lsn);
+                    throw e;
+                }
+            } finally {
+                log.endChange();
+            }
+            return new Response("Passengers added to flights successfully! ➕✈️", Status.OK, passengers.size() * flights.size());
+        } catch (IllegalArgumentException e) {
+            release(reserved.values(), seats);
+            return new Response(e.getMessage(), Status.BAD_REQUEST);
+        } catch (Exception e) {
+            release(reserved.values(), seats);
+            return new Response("An unexpected error occurred while adding the passengers to the flights. Please try again. 🚫", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // A request may have gone to the waitlist while these seats were claimed, so they are offered to it.
+    private static void release(Collection<Flight> flights, int seats) {
+        for (Flight flight : flights) {
+            ReservationEngine.getInstance().release(flight, seats);
+            WaitlistEngine.getInstance().promote(flight);
+        }
+    }
+
+    public static Response getPassengerFlights(String passengerId) {
+        try {
+            Passenger passenger = getRequiredPassenger(passengerId);
+            List<Flight> flights = passenger.getFlights();
+            if (flights.isEmpty()) {
+                return new Response("The passenger has no registered flights. 🙁", Status.OK, flights);
+            }
+            return new Response("Passenger flights retrieved successfully! ✅", Status.OK, flights);
+        } catch (IllegalArgumentException e) {
+            return new Response(e.getMessage(), Status.BAD_REQUEST);
+        } catch (Exception e) {
+            return new Response("Could not retrieve passenger flights. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR, new ArrayList<>());
+        }
+    }
+
     public static Response showPassengerFlights(String passengerId) {
         try {
             Passenger passenger = getRequiredPassenger(passengerId);
@@ -141,14 +324,7 @@ public class PassengerController {
             if (flights.isEmpty()) {
                 return new Response("The passenger has no registered flights. 🙁", Status.OK, new ArrayList<>());
             }
-            ArrayList<String[]> data = flights.stream().map(flight -> {
-                LocalDateTime arrivalDate = Functions.ArrivalCalculation(flight);
-                return new String[]{
-                    flight.getId(),
-                    flight.getDepartureDate().toString(),
-                    arrivalDate.toString()
-                };
-            }).collect(Collectors.toCollection(ArrayList::new));
+            ArrayList<String[]> data = flights.stream().map(PassengerController::formatPassengerFlight).collect(Collectors.toCollection(ArrayList::new));
             return new Response("Passenger flights retrieved successfully! 📋", Status.OK, data);
         } catch (IllegalArgumentException e) {
             return new Response(e.getMessage(), Status.BAD_REQUEST);
@@ -157,6 +333,15 @@ public class PassengerController {
         }
     }
 
+    public static String[] formatPassengerFlight(Flight flight) {
+        LocalDateTime arrivalDate = Functions.ArrivalCalculation(flight);
+        return new String[]{
+            flight.getId(),
+            flight.getDepartureDate().toString(),
+            arrivalDate.toString()
+        };
+    }
+
     public static Response changeUser(String id) {
         try {
             if (id.equals("Select User")) {
@@ -190,6 +375,14 @@ public class PassengerController {
     }
 
     public static Passenger getRequiredPassenger(String passengerId) {
+        try {
+            return getRequiredPassenger(Long.parseLong(passengerId));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Passenger with the selected ID not found. 🧑‍✈️🔍❌");
+        }
+    }
+
+    public static Passenger getRequiredPassenger(long passengerId) {
         Passenger passenger = PassengerStorage.getInstance().get(passengerId);
         if (passenger == null) {
             throw new IllegalArgumentException("Passenger with the selected ID not found. 🧑‍✈️🔍❌");
@@ -205,6 +398,14 @@ public class PassengerController {
         return flight;
     }
 
+    public static WaitlistEngine.Priority parsePriority(String priorityClass) {
+        try {
+            return WaitlistEngine.Priority.valueOf(priorityClass.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Priority class must be FIRST, BUSINESS or ECONOMY. 🎫❌");
+        }
+    }
+
     public static void validateStringField(String value, String fieldName) {
         if (value == null || value.trim().isEmpty()) {
             throw new IllegalArgumentException(fieldName + " cannot be empty. 📝🚫");
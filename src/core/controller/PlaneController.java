@@ -9,7 +9,9 @@ import core.storage.FlightStorage; // Added for DataProcessor
 import core.storage.LocationStorage; // Added for DataProcessor
 import core.storage.PassengerStorage; // Added for DataProcessor
 import core.storage.DataProcessor; // Changed import
-import core.functions.Functions;
+import core.storage.Page;
+import core.storage.StringDictionary;
+import core.storage.WriteAheadLog;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -34,7 +36,7 @@ public class PlaneController {
 
     public static Response getAllPlanes() {
         try {
-            List<Plane> planes = Functions.PlaneOrderer(PlaneStorage.getInstance().getAll());
+            List<Plane> planes = PlaneStorage.getInstance().getSnapshot();
             return new Response("Planes retrieved successfully! ✅", Status.OK, planes);
         } catch (Exception e) {
             return new Response("Could not retrieve planes. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR, new ArrayList<>());
@@ -43,20 +45,35 @@ public class PlaneController {
 
     public static Response getPlanesWithFormat() {
         try {
-            List<Plane> planes = (List<Plane>) getAllPlanes().getObject();
-            ArrayList<String[]> data = planes.stream().map(plane -> new String[]{
-                plane.getId(),
-                plane.getBrand(),
-                plane.getModel(),
-                String.valueOf(plane.getMaxCapacity()),
-                plane.getAirline()
-            }).collect(Collectors.toCollection(ArrayList::new));
+            List<Plane> planes = getAllPlanes().getList(Plane.class);
+            ArrayList<String[]> data = planes.stream().map(PlaneController::formatPlane).collect(Collectors.toCollection(ArrayList::new));
             return new Response("Planes retrieved successfully! 📋", Status.OK, data);
         } catch (Exception e) {
             return new Response("Could not retrieve formatted planes. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR, new ArrayList<>());
         }
     }
 
+    public static Response getPlanesPageWithFormat(String token, int limit) {
+        try {
+            Page<String[]> page = PlaneStorage.getInstance().getPageAfter(token, limit).map(PlaneController::formatPlane);
+            return new Response("Planes retrieved successfully! 📋", Status.OK, page);
+        } catch (IllegalArgumentException e) {
+            return new Response(e.getMessage(), Status.BAD_REQUEST);
+        } catch (Exception e) {
+            return new Response("Could not retrieve formatted planes. Please try again later. 😔", Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public static String[] formatPlane(Plane plane) {
+        return new String[]{
+            plane.getId(),
+            plane.getBrand(),
+            plane.getModel(),
+            String.valueOf(plane.getMaxCapacity()),
+            plane.getAirline()
+        };
+    }
+
     public static Response addPlane(String id, String brand, String model, String maxCapacityStr, String airline) {
         try {
             validatePlaneId(id);
@@ -66,7 +83,23 @@ public class PlaneController {
             validateStringField(brand, "The brand");
             validateStringField(model, "The model");
             validateStringField(airline, "The airline");
-            PlaneStorage.getInstance().add(new Plane(id, brand, model, parseMaxCapacity(maxCapacityStr), airline));
+            StringDictionary dictionary = StringDictionary.getInstance();
+            Plane plane = new Plane(id,
+                    dictionary.canonicalize(StringDictionary.Field.PLANE_BRAND, brand),
+                    dictionary.canonicalize(StringDictionary.Field.PLANE_MODEL, model),
+                    parseMaxCapacity(maxCapacityStr),
+                    dictionary.canonicalize(StringDictionary.Field.PLANE_AIRLINE, airline));
+            WriteAheadLog log = WriteAheadLog.getInstance();
+            log.beginChange();
+            try {
+                long lsn = log.logAddPlane(plane);
+                if (!PlaneStorage.getInstance().add(plane)) {
+                    log.abort(lsn);
+                    throw new IllegalArgumentException("A plane with this ID already exists. 🆔");
+                }
+            } finally {
+                log.endChange();
+            }
             return new Response("Plane added successfully! ✨", Status.CREATED);
         } catch (IllegalArgumentException e) {
             return new Response(e.getMessage(), Status.BAD_REQUEST);
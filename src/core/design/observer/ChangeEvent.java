@@ -0,0 +1,98 @@
+package core.design.observer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What a notification is about: the legacy code (1 = add, 2 = update,
+ * 3 = user changed) plus, when the sender knows them, the entities that were
+ * added, replaced or removed. Observers can then patch just the affected
+ * rows. An event without changes means "reload everything".
+ */
+public class ChangeEvent<T> {
+
+    public enum Type {
+        ADDED, UPDATED, REMOVED
+    }
+
+    private final int code;
+    private final ArrayList<Change<T>> changes;
+
+    public ChangeEvent(int code) {
+        this.code = code;
+        this.changes = new ArrayList<>();
+    }
+
+    public ChangeEvent<T> added(String id, T item) {
+        this.changes.add(new Change<>(Type.ADDED, id, null, item));
+        return this;
+    }
+
+    // Before and after are the same object when the entity was changed in place.
+    public ChangeEvent<T> updated(String id, T before, T after) {
+        this.changes.add(new Change<>(Type.UPDATED, id, before, after));
+        return this;
+    }
+
+    public ChangeEvent<T> removed(String id, T before) {
+        this.changes.add(new Change<>(Type.REMOVED, id, before, null));
+        return this;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public List<Change<T>> getChanges() {
+        return changes;
+    }
+
+    public boolean hasChanges() {
+        return !changes.isEmpty();
+    }
+
+    /**
+     * Narrows an event an observer received untyped. Every entity is checked
+     * against the type, so a storage that sent the wrong kind fails here
+     * rather than in the middle of patching a component.
+     */
+    @SuppressWarnings("unchecked")
+    public <E> ChangeEvent<E> of(Class<E> type) {
+        for (Change<T> change : changes) {
+            if ((change.before != null && !type.isInstance(change.before)) || (change.after != null && !type.isInstance(change.after))) {
+                throw new ClassCastException("Change of " + change.id + " is not a " + type.getSimpleName());
+            }
+        }
+        return (ChangeEvent<E>) this;
+    }
+
+    public static class Change<T> {
+        private final Type type;
+        private final String id;
+        private final T before;
+        private final T after;
+
+        private Change(Type type, String id, T before, T after) {
+            this.type = type;
+            this.id = id;
+            this.before = before;
+            this.after = after;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public T getBefore() {
+            return before;
+        }
+
+        public T getAfter() {
+            return after;
+        }
+    }
+}
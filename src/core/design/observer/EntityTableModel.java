@@ -0,0 +1,110 @@
+package core.design.observer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableModel;
+
+/**
+ * Table model over a list of entities, usually a storage snapshot held as
+ * is. Cells are formatted when the table paints them instead of being
+ * copied into row arrays up front, so the model costs one reference per row.
+ */
+public class EntityTableModel<T> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] columnNames;
+    private final Function<T, String[]> formatter;
+    private List<T> items;
+    // Set while the items are a list this model may change, rather than a shared snapshot.
+    private boolean owned;
+    private int cachedRow;
+    private String[] cachedCells;
+
+    public EntityTableModel(String[] columnNames, Function<T, String[]> formatter) {
+        this.columnNames = columnNames;
+        this.formatter = formatter;
+        this.items = List.of();
+        this.cachedRow = -1;
+    }
+
+    // Keeps the column headers that the form designer gave the table.
+    public static String[] columnNames(JTable table) {
+        TableModel model = table.getModel();
+        String[] names = new String[model.getColumnCount()];
+        for (int column = 0; column < names.length; column++) {
+            names[column] = model.getColumnName(column);
+        }
+        return names;
+    }
+
+    public void reload(List<T> items) {
+        this.items = items;
+        this.owned = false;
+        this.cachedRow = -1;
+        fireTableDataChanged();
+    }
+
+    public T getItem(int row) {
+        return this.items.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.items.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return this.columnNames[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    // A table paints row by row, so remembering the last formatted row formats each row once per paint.
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (row != this.cachedRow) {
+            this.cachedCells = this.formatter.apply(this.items.get(row));
+            this.cachedRow = row;
+        }
+        return column < this.cachedCells.length ? this.cachedCells[column] : null;
+    }
+
+    protected void insertItem(int row, T item) {
+        editableItems().add(row, item);
+        this.cachedRow = -1;
+        fireTableRowsInserted(row, row);
+    }
+
+    protected void setItem(int row, T item) {
+        editableItems().set(row, item);
+        this.cachedRow = -1;
+        fireTableRowsUpdated(row, row);
+    }
+
+    protected void removeItem(int row) {
+        editableItems().remove(row);
+        this.cachedRow = -1;
+        fireTableRowsDeleted(row, row);
+    }
+
+    private List<T> editableItems() {
+        if (!this.owned) {
+            this.items = new ArrayList<>(this.items);
+            this.owned = true;
+        }
+        return this.items;
+    }
+}
@@ -3,35 +3,93 @@ package core.design.observer;
 import core.controller.FlightController;
 import core.responses.Response;
 import core.model.Flight;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.List;
 import javax.swing.JComboBox;
 import javax.swing.JOptionPane;
 
-public class FlightComboBoxObserver extends Observer {
+public class FlightComboBoxObserver extends SwingObserver {
 
-    private JComboBox comboBox1;
-    private JComboBox comboBox2;
+    private JComboBox<String> comboBox1;
+    private JComboBox<String> comboBox2;
+    private SortedRows<Flight, LocalDateTime> items;
 
     public static final int FLIGHT_ADDED = 1;
 
-    public FlightComboBoxObserver(JComboBox comboBox1, JComboBox comboBox2) {
+    public FlightComboBoxObserver(JComboBox<String> comboBox1, JComboBox<String> comboBox2) {
         this.comboBox1 = comboBox1;
         this.comboBox2 = comboBox2;
+        // Index 0 of both boxes is the placeholder.
+        this.items = new SortedRows<>() {
+            @Override
+            protected int size() {
+                return comboBox1.getItemCount() - 1;
+            }
+
+            @Override
+            protected String idAt(int index) {
+                return comboBox1.getItemAt(index + 1);
+            }
+
+            @Override
+            protected String idOf(Flight item) {
+                return item.getId();
+            }
+
+            @Override
+            protected LocalDateTime keyOf(Flight item) {
+                return item.getDepartureDate();
+            }
+
+            @Override
+            protected void insert(int index, Flight item) {
+                comboBox1.insertItemAt(item.getId(), index + 1);
+                comboBox2.insertItemAt(item.getId(), index + 1);
+            }
+
+            @Override
+            protected void set(int index, Flight item) {
+            }
+
+            @Override
+            protected void remove(int index) {
+                comboBox1.removeItemAt(index + 1);
+                comboBox2.removeItemAt(index + 1);
+            }
+        };
+        // The designer already put a placeholder in the boxes.
+        comboBox1.removeAllItems();
+        comboBox2.removeAllItems();
         initializeComboBoxes();
     }
 
     @Override
-    public void notify(int value) {
-        if (value == FLIGHT_ADDED) {
-            comboBox1.removeAllItems();
-            comboBox2.removeAllItems();
-            initializeComboBoxes();
+    protected void update(List<ChangeEvent<?>> events) {
+        if (!items.canApply(events)) {
+            updateComboBoxes();
+            return;
+        }
+        for (ChangeEvent<?> event : events) {
+            items.apply(event.of(Flight.class));
+        }
+    }
 
-            Response response = FlightController.getAllFlights();
-            handleResponse(response);
+    @Override
+    protected void update(int value) {
+        if (value == FLIGHT_ADDED) {
+            updateComboBoxes();
         }
     }
 
+    private void updateComboBoxes() {
+        comboBox1.removeAllItems();
+        comboBox2.removeAllItems();
+        initializeComboBoxes();
+
+        Response response = FlightController.getAllFlights();
+        handleResponse(response);
+    }
+
     private void initializeComboBoxes() {
         comboBox1.addItem("Flight");
         comboBox2.addItem("ID");
@@ -43,10 +101,12 @@ public class FlightComboBoxObserver extends Observer {
         } else if (response.getStatus() >= 400) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
         } else {
-            for (Flight f : (ArrayList<Flight>) response.getObject()) {
+            List<Flight> flights = response.getList(Flight.class);
+            for (Flight f : flights) {
                 comboBox1.addItem(f.getId());
                 comboBox2.addItem(f.getId());
             }
+            items.reset(flights);
         }
     }
 }
\ No newline at end of file
@@ -2,26 +2,43 @@ package core.design.observer;
 
 import core.controller.FlightController;
 import core.responses.Response;
-import java.util.ArrayList;
+import core.model.Flight;
+import java.time.LocalDateTime;
+import java.util.List;
 import javax.swing.JOptionPane;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.JTable;
 
-public class FlightTableObserver extends Observer {
+public class FlightTableObserver extends SwingObserver {
 
-    private DefaultTableModel tableModel;
+    private SortedTableModel<Flight, LocalDateTime> tableModel;
 
-    public FlightTableObserver(DefaultTableModel tableModel) {
-        this.tableModel = tableModel;
+    public FlightTableObserver(JTable table) {
+        this.tableModel = new SortedTableModel<>(EntityTableModel.columnNames(table), FlightController::formatFlight, Flight::getId, Flight::getDepartureDate);
+        table.setModel(this.tableModel);
+    }
+
+    public EntityTableModel<Flight> getTableModel() {
+        return tableModel;
+    }
+
+    @Override
+    protected void update(List<ChangeEvent<?>> events) {
+        if (!tableModel.canApply(events)) {
+            updateTable();
+            return;
+        }
+        for (ChangeEvent<?> event : events) {
+            tableModel.apply(event.of(Flight.class));
+        }
     }
 
     @Override
-    public void notify(int value) {
+    protected void update(int value) {
         updateTable();
     }
 
     private void updateTable() {
-        tableModel.setRowCount(0);
-        Response response = FlightController.getFlightsWithFormat();
+        Response response = FlightController.getAllFlights();
         handleResponse(response);
     }
 
@@ -31,9 +48,7 @@ public class FlightTableObserver extends Observer {
         } else if (response.getStatus() >= 400) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
         } else {
-            for (String[] data : (ArrayList<String[]>) response.getObject()) {
-                tableModel.addRow(data);
-            }
+            tableModel.reload(response.getList(Flight.class));
         }
     }
 }
\ No newline at end of file
@@ -3,25 +3,86 @@ package core.design.observer;
 import core.controller.LocationController;
 import core.responses.Response;
 import core.model.Location;
-import java.util.ArrayList;
+import java.util.List;
 import javax.swing.JComboBox;
 import javax.swing.JOptionPane;
 
-public class LocationComboBoxObserver extends Observer {
+public class LocationComboBoxObserver extends SwingObserver {
 
-    private JComboBox comboBox1;
-    private JComboBox comboBox2;
-    private JComboBox comboBox3;
+    private JComboBox<String> comboBox1;
+    private JComboBox<String> comboBox2;
+    private JComboBox<String> comboBox3;
+    private SortedRows<Location, String> items;
 
-    public LocationComboBoxObserver(JComboBox comboBox1, JComboBox comboBox2, JComboBox comboBox3) {
+    public LocationComboBoxObserver(JComboBox<String> comboBox1, JComboBox<String> comboBox2, JComboBox<String> comboBox3) {
         this.comboBox1 = comboBox1;
         this.comboBox2 = comboBox2;
         this.comboBox3 = comboBox3;
+        // Index 0 of every box is the placeholder.
+        this.items = new SortedRows<>() {
+            @Override
+            protected int size() {
+                return comboBox1.getItemCount() - 1;
+            }
+
+            @Override
+            protected String idAt(int index) {
+                return comboBox1.getItemAt(index + 1);
+            }
+
+            @Override
+            protected String keyAt(int index) {
+                return idAt(index);
+            }
+
+            @Override
+            protected String idOf(Location item) {
+                return item.getAirportId();
+            }
+
+            @Override
+            protected String keyOf(Location item) {
+                return item.getAirportId();
+            }
+
+            @Override
+            protected void insert(int index, Location item) {
+                comboBox1.insertItemAt(item.getAirportId(), index + 1);
+                comboBox2.insertItemAt(item.getAirportId(), index + 1);
+                comboBox3.insertItemAt(item.getAirportId(), index + 1);
+            }
+
+            @Override
+            protected void set(int index, Location item) {
+            }
+
+            @Override
+            protected void remove(int index) {
+                comboBox1.removeItemAt(index + 1);
+                comboBox2.removeItemAt(index + 1);
+                comboBox3.removeItemAt(index + 1);
+            }
+        };
+        // The designer already put a placeholder in the boxes.
+        comboBox1.removeAllItems();
+        comboBox2.removeAllItems();
+        comboBox3.removeAllItems();
         initializeComboBoxes();
     }
 
     @Override
-    public void notify(int value) {
+    protected void update(List<ChangeEvent<?>> events) {
+        if (!items.canApply(events)) {
+            super.update(events);
+            return;
+        }
+        for (ChangeEvent<?> event : events) {
+            items.apply(event.of(Location.class));
+        }
+    }
+
+    @Override
+    protected void update(int value) {
         comboBox1.removeAllItems();
         comboBox2.removeAllItems();
         comboBox3.removeAllItems();
@@ -43,11 +104,13 @@ public class LocationComboBoxObserver extends Observer {
         } else if (response.getStatus() >= 400) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
         } else {
-            for (Location f : (ArrayList<Location>) response.getObject()) {
+            List<Location> locations = response.getList(Location.class);
+            for (Location f : locations) {
                 comboBox1.addItem(f.getAirportId());
                 comboBox2.addItem(f.getAirportId());
                 comboBox3.addItem(f.getAirportId());
             }
+            items.reset(locations);
         }
     }
 }
\ No newline at end of file
@@ -2,26 +2,42 @@ package core.design.observer;
 
 import core.controller.LocationController;
 import core.responses.Response;
-import java.util.ArrayList;
+import core.model.Location;
+import java.util.List;
 import javax.swing.JOptionPane;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.JTable;
 
-public class LocationTableObserver extends Observer {
+public class LocationTableObserver extends SwingObserver {
 
-    private DefaultTableModel tableModel;
+    private SortedTableModel<Location, String> tableModel;
 
-    public LocationTableObserver(DefaultTableModel tableModel) {
-        this.tableModel = tableModel;
+    public LocationTableObserver(JTable table) {
+        this.tableModel = new SortedTableModel<>(EntityTableModel.columnNames(table), LocationController::formatLocation, Location::getAirportId, Location::getAirportId);
+        table.setModel(this.tableModel);
+    }
+
+    public EntityTableModel<Location> getTableModel() {
+        return tableModel;
+    }
+
+    @Override
+    protected void update(List<ChangeEvent<?>> events) {
+        if (!tableModel.canApply(events)) {
+            updateTable();
+            return;
+        }
+        for (ChangeEvent<?> event : events) {
+            tableModel.apply(event.of(Location.class));
+        }
     }
 
     @Override
-    public void notify(int value) {
+    protected void update(int value) {
         updateTable();
     }
 
     private void updateTable() {
-        tableModel.setRowCount(0);
-        Response response = LocationController.getLocationsWithFormat();
+        Response response = LocationController.getAllLocations();
         handleResponse(response);
     }
 
@@ -31,9 +47,7 @@ public class LocationTableObserver extends Observer {
         } else if (response.getStatus() >= 400) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
         } else {
-            for (String[] data : (ArrayList<String[]>) response.getObject()) {
-                tableModel.addRow(data);
-            }
+            tableModel.reload(response.getList(Location.class));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package core.design.observer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+
+/**
+ * Collects the notifications meant for Swing observers and delivers them in
+ * batches on the event dispatch thread. Within one window every observer
+ * gets a single call with all the events it was sent, so a burst of a
+ * thousand adds costs one update. A window of 0 merges whatever arrives
+ * before the EDT gets to the next batch.
+ */
+public class NotificationDispatcher {
+
+    private static final NotificationDispatcher instance = new NotificationDispatcher();
+
+    private final ScheduledExecutorService timer;
+    private LinkedHashMap<SwingObserver, ArrayList<ChangeEvent<?>>> pending;
+    private boolean scheduled;
+    private long windowMillis;
+    private long posted;
+    private long delivered;
+
+    private NotificationDispatcher() {
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = new LinkedHashMap<>();
+        // About one frame at 60 Hz.
+        this.windowMillis = 16;
+    }
+
+    public static NotificationDispatcher getInstance() {
+        return instance;
+    }
+
+    public synchronized void setWindowMillis(long windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("The window cannot be negative.");
+        }
+        this.windowMillis = windowMillis;
+    }
+
+    public synchronized long getWindowMillis() {
+        return this.windowMillis;
+    }
+
+    public synchronized long getPosted() {
+        return this.posted;
+    }
+
+    public synchronized long getDelivered() {
+        return this.delivered;
+    }
+
+    public synchronized long getCollapsed() {
+        return this.posted - this.delivered - pendingCount();
+    }
+
+    synchronized void post(SwingObserver observer, ChangeEvent<?> event) {
+        this.posted++;
+        this.pending.computeIfAbsent(observer, key -> new ArrayList<>()).add(event);
+        if (!this.scheduled) {
+            this.scheduled = true;
+            if (this.windowMillis == 0) {
+                SwingUtilities.invokeLater(this::flush);
+            } else {
+                this.timer.schedule(() -> SwingUtilities.invokeLater(this::flush), this.windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        LinkedHashMap<SwingObserver, ArrayList<ChangeEvent<?>>> batch;
+        synchronized (this) {
+            batch = this.pending;
+            this.pending = new LinkedHashMap<>();
+            this.scheduled = false;
+            this.delivered += batch.size();
+        }
+        for (Map.Entry<SwingObserver, ArrayList<ChangeEvent<?>>> entry : batch.entrySet()) {
+            entry.getKey().update(entry.getValue());
+        }
+    }
+
+    private long pendingCount() {
+        long count = 0;
+        for (ArrayList<ChangeEvent<?>> events : this.pending.values()) {
+            count += events.size();
+        }
+        return count;
+    }
+}
@@ -1,12 +1,13 @@
 package core.design.observer;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class Observable {
-    protected ArrayList<Observer> observers;
+    protected List<Observer> observers;
 
     public Observable() {
-        this.observers = new ArrayList<>();
+        this.observers = new CopyOnWriteArrayList<>();
     }
 
     public void addObserver(Observer observer) {
@@ -15,8 +16,12 @@ public abstract class Observable {
     }
 
     protected void notifyAll(int value) {
+        notifyAll(new ChangeEvent<>(value));
+    }
+
+    protected void notifyAll(ChangeEvent<?> event) {
         for (Observer observer : this.observers) {
-            observer.notify(value);
+            observer.notify(event);
         }
     }
 }
\ No newline at end of file
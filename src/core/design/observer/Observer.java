@@ -12,4 +12,9 @@ public abstract class Observer {
     }
 
     public abstract void notify(int value);
+
+    // Observers that can apply individual changes override this; the others only see the code.
+    public void notify(ChangeEvent<?> event) {
+        notify(event.getCode());
+    }
 }
\ No newline at end of file
@@ -3,46 +3,107 @@ package core.design.observer;
 import core.controller.PassengerController;
 import core.responses.Response;
 import core.model.Passenger;
-import java.util.ArrayList;
+import java.util.List;
 import javax.swing.JComboBox;
 import javax.swing.JOptionPane;
 
-public class PassengerComboBoxObserver extends Observer {
+public class PassengerComboBoxObserver extends SwingObserver {
 
-    private JComboBox comboBox1;
+    private JComboBox<String> comboBox1;
+    private SortedRows<Passenger, Long> items;
 
     public static final int PASSENGER_ADDED = 1;
 
-    public PassengerComboBoxObserver(JComboBox comboBox1) {
+    public PassengerComboBoxObserver(JComboBox<String> comboBox1) {
         this.comboBox1 = comboBox1;
+        // Index 0 is the placeholder.
+        this.items = new SortedRows<>() {
+            @Override
+            protected int size() {
+                return comboBox1.getItemCount() - 1;
+            }
+
+            @Override
+            protected String idAt(int index) {
+                return comboBox1.getItemAt(index + 1);
+            }
+
+            @Override
+            protected Long keyAt(int index) {
+                return Long.valueOf(idAt(index));
+            }
+
+            @Override
+            protected String idOf(Passenger item) {
+                return String.valueOf(item.getId());
+            }
+
+            @Override
+            protected Long keyOf(Passenger item) {
+                return item.getId();
+            }
+
+            @Override
+            protected void insert(int index, Passenger item) {
+                comboBox1.insertItemAt(String.valueOf(item.getId()), index + 1);
+            }
+
+            @Override
+            protected void set(int index, Passenger item) {
+            }
+
+            @Override
+            protected void remove(int index) {
+                comboBox1.removeItemAt(index + 1);
+            }
+        };
+        // The designer already put a placeholder in the boxes.
+        comboBox1.removeAllItems();
         initializeComboBox();
     }
 
     @Override
-    public void notify(int value) {
-        if (value == PASSENGER_ADDED) {
-            comboBox1.removeAllItems();
-            initializeComboBox();
+    protected void update(List<ChangeEvent<?>> events) {
+        if (!items.canApply(events)) {
+            updateComboBox();
+            return;
+        }
+        for (ChangeEvent<?> event : events) {
+            items.apply(event.of(Passenger.class));
+        }
+    }
 
-            Response response = PassengerController.getAllPassengers();
-            handleResponse(response, comboBox1);
+    @Override
+    protected void update(int value) {
+        if (value == PASSENGER_ADDED) {
+            updateComboBox();
         }
     }
 
+    private void updateComboBox() {
+        comboBox1.removeAllItems();
+        initializeComboBox();
+
+        Response response = PassengerController.getAllPassengers();
+        handleResponse(response, comboBox1);
+    }
+
     private void initializeComboBox() {
         comboBox1.addItem("Select User");
     }
 
-    private void handleResponse(Response response, JComboBox comboBox) {
+    private void handleResponse(Response response, JComboBox<String> comboBox) {
         if (response.getStatus() >= 500) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
         } else if (response.getStatus() >= 400) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
         } else {
-            if (response.getObject() instanceof ArrayList) {
-                for (Passenger p : (ArrayList<Passenger>) response.getObject()) {
+            if (response.getObject() instanceof List) {
+                List<Passenger> passengers = response.getList(Passenger.class);
+                for (Passenger p : passengers) {
                     comboBox.addItem(String.valueOf(p.getId()));
                 }
+                items.reset(passengers);
             }
         }
     }
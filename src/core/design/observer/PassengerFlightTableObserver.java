@@ -2,24 +2,52 @@ package core.design.observer;
 
 import core.controller.PassengerController;
 import core.responses.Response;
+import core.model.Flight;
 import core.model.Passenger;
-import java.util.ArrayList;
+import java.util.List;
 import javax.swing.JOptionPane;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.JTable;
 
-public class PassengerFlightTableObserver extends Observer {
+public class PassengerFlightTableObserver extends SwingObserver {
 
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Flight> tableModel;
     private Passenger currentUser = null;
 
     public static final int CURRENT_USER_UPDATED = 3;
 
-    public PassengerFlightTableObserver(DefaultTableModel tableModel) {
-        this.tableModel = tableModel;
+    public PassengerFlightTableObserver(JTable table) {
+        this.tableModel = new EntityTableModel<>(EntityTableModel.columnNames(table), PassengerController::formatPassengerFlight);
+        table.setModel(this.tableModel);
+    }
+
+    public EntityTableModel<Flight> getTableModel() {
+        return tableModel;
+    }
+
+    // Only changes to the current user can change their flights.
+    @Override
+    protected void update(List<ChangeEvent<?>> events) {
+        boolean affected = false;
+        for (ChangeEvent<?> event : events) {
+            if (event.getCode() == CURRENT_USER_UPDATED) {
+                this.currentUser = UserManager.getInstance().getCurrentUser();
+                affected = true;
+            } else if (!event.hasChanges()) {
+                affected = true;
+            } else if (this.currentUser != null) {
+                String currentId = String.valueOf(this.currentUser.getId());
+                for (ChangeEvent.Change<?> change : event.getChanges()) {
+                    affected |= change.getId().equals(currentId);
+                }
+            }
+        }
+        if (affected) {
+            updatePassengerFlightsTable();
+        }
     }
 
     @Override
-    public void notify(int value) {
+    protected void update(int value) {
         if (value == CURRENT_USER_UPDATED) {
             this.currentUser = UserManager.getInstance().getCurrentUser();
         }
@@ -27,27 +55,22 @@ public class PassengerFlightTableObserver extends Observer {
     }
 
     private void updatePassengerFlightsTable() {
-        tableModel.setRowCount(0);
-
         if (this.currentUser == null) {
+            tableModel.reload(List.of());
             return;
         }
 
-        Response response = PassengerController.showPassengerFlights(String.valueOf(this.currentUser.getId()));
-        handleResponse(response, tableModel);
+        Response response = PassengerController.getPassengerFlights(String.valueOf(this.currentUser.getId()));
+        handleResponse(response);
     }
 
-    private void handleResponse(Response response, DefaultTableModel model) {
+    private void handleResponse(Response response) {
         if (response.getStatus() >= 500) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
         } else if (response.getStatus() >= 400) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
         } else {
-            if (response.getObject() instanceof ArrayList) {
-                for (String[] data : (ArrayList<String[]>) response.getObject()) {
-                    model.addRow(data);
-                }
-            }
+            tableModel.reload(response.getList(Flight.class));
         }
     }
 }
\ No newline at end of file
@@ -2,40 +2,52 @@ package core.design.observer;
 
 import core.controller.PassengerController;
 import core.responses.Response;
-import java.util.ArrayList;
+import core.model.Passenger;
+import java.util.List;
 import javax.swing.JOptionPane;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.JTable;
 
-public class PassengerTableObserver extends Observer {
+public class PassengerTableObserver extends SwingObserver {
 
-    private DefaultTableModel tableModel;
+    private SortedTableModel<Passenger, Long> tableModel;
 
-    public PassengerTableObserver(DefaultTableModel tableModel) {
-        this.tableModel = tableModel;
+    public PassengerTableObserver(JTable table) {
+        this.tableModel = new SortedTableModel<>(EntityTableModel.columnNames(table), PassengerController::formatPassenger, passenger -> String.valueOf(passenger.getId()), Passenger::getId);
+        table.setModel(this.tableModel);
+    }
+
+    public EntityTableModel<Passenger> getTableModel() {
+        return tableModel;
+    }
+
+    @Override
+    protected void update(List<ChangeEvent<?>> events) {
+        if (!tableModel.canApply(events)) {
+            updatePassengerTable();
+            return;
+        }
+        for (ChangeEvent<?> event : events) {
+            tableModel.apply(event.of(Passenger.class));
+        }
     }
 
     @Override
-    public void notify(int value) {
+    protected void update(int value) {
         updatePassengerTable();
     }
 
     private void updatePassengerTable() {
-        tableModel.setRowCount(0);
-        Response response = PassengerController.getPassengersWithFormat();
-        handleResponse(response, tableModel);
+        Response response = PassengerController.getAllPassengers();
+        handleResponse(response);
     }
 
-    private void handleResponse(Response response, DefaultTableModel model) {
+    private void handleResponse(Response response) {
         if (response.getStatus() >= 500) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
         } else if (response.getStatus() >= 400) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
         } else {
-            if (response.getObject() instanceof ArrayList) {
-                for (String[] data : (ArrayList<String[]>) response.getObject()) {
-                    model.addRow(data);
-                }
-            }
+            tableModel.reload(response.getList(Passenger.class));
         }
     }
 }
\ No newline at end of file
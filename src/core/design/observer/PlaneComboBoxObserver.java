@@ -3,21 +3,76 @@ package core.design.observer;
 import core.controller.PlaneController;
 import core.responses.Response;
 import core.model.Plane;
-import java.util.ArrayList;
+import java.util.List;
 import javax.swing.JComboBox;
 import javax.swing.JOptionPane;
 
-public class PlaneComboBoxObserver extends Observer {
+public class PlaneComboBoxObserver extends SwingObserver {
 
-    private JComboBox comboBox1;
+    private JComboBox<String> comboBox1;
+    private SortedRows<Plane, String> items;
 
-    public PlaneComboBoxObserver(JComboBox comboBox1) {
+    public PlaneComboBoxObserver(JComboBox<String> comboBox1) {
         this.comboBox1 = comboBox1;
+        // Index 0 is the placeholder.
+        this.items = new SortedRows<>() {
+            @Override
+            protected int size() {
+                return comboBox1.getItemCount() - 1;
+            }
+
+            @Override
+            protected String idAt(int index) {
+                return comboBox1.getItemAt(index + 1);
+            }
+
+            @Override
+            protected String keyAt(int index) {
+                return idAt(index);
+            }
+
+            @Override
+            protected String idOf(Plane item) {
+                return item.getId();
+            }
+
+            @Override
+            protected String keyOf(Plane item) {
+                return item.getId();
+            }
+
+            @Override
+            protected void insert(int index, Plane item) {
+                comboBox1.insertItemAt(item.getId(), index + 1);
+            }
+
+            @Override
+            protected void set(int index, Plane item) {
+            }
+
+            @Override
+            protected void remove(int index) {
+                comboBox1.removeItemAt(index + 1);
+            }
+        };
+        // The designer already put a placeholder in the boxes.
+        comboBox1.removeAllItems();
         initializeComboBox();
     }
 
     @Override
-    public void notify(int value) {
+    protected void update(List<ChangeEvent<?>> events) {
+        if (!items.canApply(events)) {
+            super.update(events);
+            return;
+        }
+        for (ChangeEvent<?> event : events) {
+            items.apply(event.of(Plane.class));
+        }
+    }
+
+    @Override
+    protected void update(int value) {
         comboBox1.removeAllItems();
         initializeComboBox();
 
@@ -29,16 +84,18 @@ public class PlaneComboBoxObserver extends Observer {
         comboBox1.addItem("Plane");
     }
 
-    private void handleResponse(Response response, JComboBox comboBox) {
+    private void handleResponse(Response response, JComboBox<String> comboBox) {
         if (response.getStatus() >= 500) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
         } else if (response.getStatus() >= 400) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
         } else {
-            if (response.getObject() instanceof ArrayList) {
-                for (Plane p : (ArrayList<Plane>) response.getObject()) {
+            if (response.getObject() instanceof List) {
+                List<Plane> planes = response.getList(Plane.class);
+                for (Plane p : planes) {
                     comboBox.addItem(p.getId());
                 }
+                items.reset(planes);
             }
         }
     }
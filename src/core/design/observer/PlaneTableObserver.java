@@ -2,40 +2,52 @@ package core.design.observer;
 
 import core.controller.PlaneController;
 import core.responses.Response;
-import java.util.ArrayList;
+import core.model.Plane;
+import java.util.List;
 import javax.swing.JOptionPane;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.JTable;
 
-public class PlaneTableObserver extends Observer {
+public class PlaneTableObserver extends SwingObserver {
 
-    private DefaultTableModel tableModel;
+    private SortedTableModel<Plane, String> tableModel;
 
-    public PlaneTableObserver(DefaultTableModel tableModel) {
-        this.tableModel = tableModel;
+    public PlaneTableObserver(JTable table) {
+        this.tableModel = new SortedTableModel<>(EntityTableModel.columnNames(table), PlaneController::formatPlane, Plane::getId, Plane::getId);
+        table.setModel(this.tableModel);
+    }
+
+    public EntityTableModel<Plane> getTableModel() {
+        return tableModel;
+    }
+
+    @Override
+    protected void update(List<ChangeEvent<?>> events) {
+        if (!tableModel.canApply(events)) {
+            updateTableContent();
+            return;
+        }
+        for (ChangeEvent<?> event : events) {
+            tableModel.apply(event.of(Plane.class));
+        }
     }
 
     @Override
-    public void notify(int value) {
+    protected void update(int value) {
         updateTableContent();
     }
 
     private void updateTableContent() {
-        tableModel.setRowCount(0);
-        Response response = PlaneController.getPlanesWithFormat();
-        handleResponse(response, tableModel);
+        Response response = PlaneController.getAllPlanes();
+        handleResponse(response);
     }
 
-    private void handleResponse(Response response, DefaultTableModel model) {
+    private void handleResponse(Response response) {
         if (response.getStatus() >= 500) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
         } else if (response.getStatus() >= 400) {
             JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
         } else {
-            if (response.getObject() instanceof ArrayList) {
-                for (String[] data : (ArrayList<String[]>) response.getObject()) {
-                    model.addRow(data);
-                }
-            }
+            tableModel.reload(response.getList(Plane.class));
         }
     }
 }
\ No newline at end of file
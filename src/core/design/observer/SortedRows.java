@@ -0,0 +1,142 @@
+package core.design.observer;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Patches a sorted table or combo box from change events. Subclasses expose
+ * the ids of the rows as they are shown and apply single row edits;
+ * positions are found by binary search, so one booking or delay touches one
+ * row instead of reloading the whole component. The key each id was shown
+ * with is remembered, because an entity changed in place (a plane swapped on
+ * reload) no longer knows its old key.
+ */
+abstract class SortedRows<T, K extends Comparable<? super K>> {
+
+    private final HashMap<String, K> shownKeys = new HashMap<>();
+
+    protected abstract int size();
+
+    protected abstract String idAt(int index);
+
+    protected abstract String idOf(T item);
+
+    protected abstract K keyOf(T item);
+
+    protected abstract void insert(int index, T item);
+
+    protected abstract void set(int index, T item);
+
+    protected abstract void remove(int index);
+
+    // Components that show the key can read it back instead; others rely on the remembered keys.
+    protected K keyAt(int index) {
+        return this.shownKeys.get(idAt(index));
+    }
+
+    // Call after reloading the component from the items, in the order they are shown.
+    void reset(List<T> items) {
+        this.shownKeys.clear();
+        for (T item : items) {
+            this.shownKeys.put(idOf(item), keyOf(item));
+        }
+    }
+
+    // Untyped events and large batches are cheaper to handle with one reload.
+    boolean canApply(List<ChangeEvent<?>> events) {
+        int changes = 0;
+        for (ChangeEvent<?> event : events) {
+            if (!event.hasChanges()) {
+                return false;
+            }
+            changes += event.getChanges().size();
+        }
+        return changes <= 16 + size() / 2;
+    }
+
+    /**
+     * Adds of rows that are already shown and updates of rows that are
+     * missing are handled as upserts, since a refresh may have picked up the
+     * change before its event arrived.
+     */
+    void apply(ChangeEvent<T> event) {
+        for (ChangeEvent.Change<T> change : event.getChanges()) {
+            String id = change.getId();
+            int index = locate(id, change);
+            if (change.getType() == ChangeEvent.Type.REMOVED) {
+                if (index >= 0) {
+                    remove(index);
+                }
+                this.shownKeys.remove(id);
+                continue;
+            }
+            T after = change.getAfter();
+            K key = keyOf(after);
+            if (index >= 0 && keyAt(index).compareTo(key) == 0) {
+                this.shownKeys.put(id, key);
+                set(index, after);
+                continue;
+            }
+            if (index >= 0) {
+                remove(index);
+            }
+            this.shownKeys.remove(id);
+            int position = upperBound(key);
+            this.shownKeys.put(id, key);
+            insert(position, after);
+        }
+    }
+
+    private int locate(String id, ChangeEvent.Change<T> change) {
+        K shown = this.shownKeys.get(id);
+        int index = shown != null ? find(id, shown) : -1;
+        if (index < 0 && change.getBefore() != null) {
+            index = find(id, keyOf(change.getBefore()));
+        }
+        if (index < 0 && change.getAfter() != null) {
+            index = find(id, keyOf(change.getAfter()));
+        }
+        return index;
+    }
+
+    private int find(String id, K key) {
+        for (int index = lowerBound(key); index < size(); index++) {
+            K current = keyAt(index);
+            if (current == null || current.compareTo(key) != 0) {
+                break;
+            }
+            if (idAt(index).equals(id)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private int lowerBound(K key) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keyAt(middle).compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(K key) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keyAt(middle).compareTo(key) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
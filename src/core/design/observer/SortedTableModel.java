@@ -0,0 +1,71 @@
+package core.design.observer;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Entity table model kept in the order of its storage. Change events patch
+ * it row by row and fire the matching inserted, updated or deleted event, so
+ * the table only repaints the rows that changed.
+ */
+public class SortedTableModel<T, K extends Comparable<? super K>> extends EntityTableModel<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SortedRows<T, K> rows;
+
+    public SortedTableModel(String[] columnNames, Function<T, String[]> formatter, Function<T, String> idOf, Function<T, K> keyOf) {
+        super(columnNames, formatter);
+        this.rows = new SortedRows<>() {
+            @Override
+            protected int size() {
+                return getRowCount();
+            }
+
+            @Override
+            protected String idAt(int index) {
+                return idOf.apply(getItem(index));
+            }
+
+            @Override
+            protected String idOf(T item) {
+                return idOf.apply(item);
+            }
+
+            @Override
+            protected K keyOf(T item) {
+                return keyOf.apply(item);
+            }
+
+            @Override
+            protected void insert(int index, T item) {
+                insertItem(index, item);
+            }
+
+            @Override
+            protected void set(int index, T item) {
+                setItem(index, item);
+            }
+
+            @Override
+            protected void remove(int index) {
+                removeItem(index);
+            }
+        };
+    }
+
+    // The items must be in storage order, as snapshots are.
+    @Override
+    public void reload(List<T> items) {
+        this.rows.reset(items);
+        super.reload(items);
+    }
+
+    public boolean canApply(List<ChangeEvent<?>> events) {
+        return this.rows.canApply(events);
+    }
+
+    public void apply(ChangeEvent<T> event) {
+        this.rows.apply(event);
+    }
+}
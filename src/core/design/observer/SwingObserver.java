@@ -0,0 +1,41 @@
+package core.design.observer;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Observer that touches Swing components. Storages may notify from any
+ * thread, so updates go through the NotificationDispatcher, which merges
+ * bursts and runs them on the event dispatch thread. Delivery is always
+ * asynchronous on purpose: a loader blocking the EDT while it waits for
+ * worker threads must never wait on the EDT in return.
+ */
+public abstract class SwingObserver extends Observer {
+
+    @Override
+    public final void notify(int value) {
+        notify(new ChangeEvent<>(value));
+    }
+
+    @Override
+    public final void notify(ChangeEvent<?> event) {
+        NotificationDispatcher.getInstance().post(this, event);
+    }
+
+    /**
+     * Receives every event of a batch in the order they were sent. Observers
+     * that can patch their component override this; by default each distinct
+     * code is handled once, as a full refresh.
+     */
+    protected void update(List<ChangeEvent<?>> events) {
+        LinkedHashSet<Integer> codes = new LinkedHashSet<>();
+        for (ChangeEvent<?> event : events) {
+            codes.add(event.getCode());
+        }
+        for (int code : codes) {
+            update(code);
+        }
+    }
+
+    protected abstract void update(int value);
+}
@@ -4,8 +4,8 @@ import core.model.Passenger;
 
 public class UserManager extends Observable {
 
-    private static UserManager instance;
-    private Passenger currentUser;
+    private static final UserManager instance = new UserManager();
+    private volatile Passenger currentUser;
 
     public static final int USER_CHANGED = 3;
 
@@ -14,9 +14,6 @@ public class UserManager extends Observable {
     }
 
     public static UserManager getInstance() {
-        if (instance == null) {
-            instance = new UserManager();
-        }
         return instance;
     }
 
@@ -1,10 +1,18 @@
 package core.functions;
 
 import core.model.Flight;
+import core.model.Plane;
+import core.storage.FlightStorage;
+import java.time.LocalDateTime;
 
 public class FlightCoordinator {
 
-    public void delay(Flight flight, int hours, int minutes) {
-        flight.setDepartureDate(flight.getDepartureDate().plusHours(hours).plusMinutes(minutes));
+    // Both return the stored copy, or null when another change replaced the flight first.
+    public Flight reschedule(Flight flight, LocalDateTime departureDate) {
+        return FlightStorage.getInstance().reschedule(flight, departureDate);
     }
-}
\ No newline at end of file
+
+    public Flight changePlane(Flight flight, Plane plane) {
+        return FlightStorage.getInstance().changePlane(flight, plane);
+    }
+}
@@ -0,0 +1,68 @@
+package core.functions;
+
+import core.storage.DataProcessor;
+import core.storage.FlightStorage;
+import core.storage.LocationStorage;
+import core.storage.PassengerStorage;
+import core.storage.PlaneStorage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Loads the four data files concurrently. Planes, locations and passengers
+ * have no dependencies and start at once; flights start as soon as planes
+ * and locations are in storage. The returned future completes with the time
+ * each file took, keyed by path.
+ */
+public class LoadCoordinator {
+
+    private final DataProcessor processor;
+    private final Executor executor;
+
+    public LoadCoordinator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public LoadCoordinator(Executor executor) {
+        this.processor = new DataProcessor(
+            FlightStorage.getInstance(),
+            PlaneStorage.getInstance(),
+            LocationStorage.getInstance(),
+            PassengerStorage.getInstance()
+        );
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Map<String, Duration>> load(String planesPath, String passengersPath, String locationsPath, String flightsPath) {
+        Map<String, Duration> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+        CompletableFuture<Void> planes = run(planesPath, timings, () -> this.processor.loadPlanesFromFile(planesPath));
+        CompletableFuture<Void> locations = run(locationsPath, timings, () -> this.processor.loadLocationsFromFile(locationsPath));
+        CompletableFuture<Void> passengers = run(passengersPath, timings, () -> this.processor.loadPassengersFromFile(passengersPath));
+        CompletableFuture<Void> flights = CompletableFuture.allOf(planes, locations)
+                .thenCompose(ignored -> run(flightsPath, timings, () -> this.processor.loadFlightsFromFile(flightsPath)));
+        return CompletableFuture.allOf(passengers, flights).thenApply(ignored -> timings);
+    }
+
+    private CompletableFuture<Void> run(String path, Map<String, Duration> timings, FileLoader loader) {
+        return CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                loader.load();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            timings.put(path, Duration.ofNanos(System.nanoTime() - start));
+        }, this.executor);
+    }
+
+    private interface FileLoader {
+        void load() throws IOException;
+    }
+}
@@ -2,19 +2,47 @@ package core.functions;
 
 import core.model.Flight;
 import core.model.Passenger;
+import core.storage.BookingStore;
 import core.storage.FlightStorage;
 import core.storage.PassengerStorage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public class PassengerManager {
 
+    // Only the booking store is written; the storages just tell their observers, under their read locks.
     public void addPassenger(Flight flight, Passenger passenger) {
-        FlightStorage flightStorage = FlightStorage.getInstance();
-        PassengerStorage passengerStorage = PassengerStorage.getInstance();
+        if (!BookingStore.getInstance().book(flight, passenger)) {
+            throw new IllegalArgumentException("The passenger is already booked on this flight. 🔁");
+        }
+        PassengerStorage.getInstance().refresh(List.of(passenger.getId()));
+        FlightStorage.getInstance().refresh(List.of(flight.getId()));
+    }
 
-        flight.getPassengers().add(passenger);
-        passenger.getFlights().add(flight);
+    public boolean removePassenger(Flight flight, Passenger passenger) {
+        if (!BookingStore.getInstance().cancel(flight, passenger)) {
+            return false;
+        }
+        PassengerStorage.getInstance().refresh(List.of(passenger.getId()));
+        FlightStorage.getInstance().refresh(List.of(flight.getId()));
+        return true;
+    }
 
-        passengerStorage.update(passenger);
-        flightStorage.update(flight);
+    // Commits the whole group at once, so each storage notifies its observers a single time.
+    public void addPassengers(Collection<Flight> flights, Collection<Passenger> passengers) {
+        if (!BookingStore.getInstance().bookAll(flights, passengers)) {
+            throw new IllegalArgumentException("A passenger is already booked on one of the flights. 🔁");
+        }
+        ArrayList<Long> passengerIds = new ArrayList<>();
+        for (Passenger passenger : passengers) {
+            passengerIds.add(passenger.getId());
+        }
+        ArrayList<String> flightIds = new ArrayList<>();
+        for (Flight flight : flights) {
+            flightIds.add(flight.getId());
+        }
+        PassengerStorage.getInstance().refresh(passengerIds);
+        FlightStorage.getInstance().refresh(flightIds);
     }
-}
\ No newline at end of file
+}
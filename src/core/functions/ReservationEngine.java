@@ -0,0 +1,105 @@
+package core.functions;
+
+import core.design.observer.ChangeEvent;
+import core.design.observer.Observer;
+import core.model.Flight;
+import core.model.Passenger;
+import core.storage.BookingStore;
+import core.storage.FlightStorage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Claims seats with a per-flight atomic counter, so concurrent bookings can
+ * never take a flight past its plane's capacity. A claim must be released if
+ * the booking it was made for does not go through. Claims take no lock;
+ * recording the booking afterwards still goes through the log and the
+ * booking store's lock, which are short sections shared by all flights.
+ */
+public class ReservationEngine {
+
+    private static final ReservationEngine instance = new ReservationEngine();
+
+    private final ConcurrentHashMap<String, Seats> seats;
+
+    private ReservationEngine() {
+        this.seats = new ConcurrentHashMap<>();
+        FlightStorage.getInstance().addObserver(new Observer() {
+            @Override
+            public void notify(int value) {
+            }
+
+            // Removed flights drop their counter, so a flight later added with the same id starts from its own bookings.
+            @Override
+            public void notify(ChangeEvent<?> event) {
+                for (ChangeEvent.Change<?> change : event.getChanges()) {
+                    if (change.getType() == ChangeEvent.Type.REMOVED) {
+                        seats.remove(change.getId());
+                    }
+                }
+            }
+        });
+    }
+
+    public static ReservationEngine getInstance() {
+        return instance;
+    }
+
+    public boolean reserve(Flight flight) {
+        return reserve(flight, 1);
+    }
+
+    // Claims all the seats or none of them.
+    public boolean reserve(Flight flight, int count) {
+        AtomicInteger taken = seatsOf(flight).taken;
+        int capacity = flight.getPlane().getMaxCapacity();
+        while (true) {
+            int current = taken.get();
+            if (current + count > capacity) {
+                return false;
+            }
+            if (taken.compareAndSet(current, current + count)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(Flight flight) {
+        release(flight, 1);
+    }
+
+    public void release(Flight flight, int count) {
+        seatsOf(flight).taken.addAndGet(-count);
+    }
+
+    // Cancels the booking and gives its seat back; the counter is read before the booking goes away.
+    public boolean cancel(Flight flight, Passenger passenger) {
+        Seats counter = seatsOf(flight);
+        if (!new PassengerManager().removePassenger(flight, passenger)) {
+            return false;
+        }
+        counter.taken.decrementAndGet();
+        return true;
+    }
+
+    public int getReserved(Flight flight) {
+        return seatsOf(flight).taken.get();
+    }
+
+    // A counter starts from the bookings already stored; delays and plane changes replace the object but keep the id and its bookings.
+    private Seats seatsOf(Flight flight) {
+        Seats current = this.seats.get(flight.getId());
+        if (current != null) {
+            return current;
+        }
+        return this.seats.computeIfAbsent(flight.getId(), id -> new Seats(flight));
+    }
+
+    private static class Seats {
+        private final AtomicInteger taken;
+
+        private Seats(Flight flight) {
+            this.taken = new AtomicInteger(BookingStore.getInstance().countPassengers(flight));
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package core.functions;
+
+import core.design.observer.ChangeEvent;
+import core.design.observer.Observer;
+import core.model.Flight;
+import core.model.Passenger;
+import core.storage.BookingStore;
+import core.storage.FlightStorage;
+import core.storage.PassengerStorage;
+import core.storage.WriteAheadLog;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-flight waitlists for full flights, ordered by priority class and then
+ * by request time. Each flight has its own heap and lock, so a promotion
+ * only touches the waitlist of the flight whose capacity changed. Changes
+ * are logged while the flight's waitlist is locked, so the log holds them
+ * in the order they were applied.
+ */
+public class WaitlistEngine {
+
+    public enum Priority {
+        FIRST, BUSINESS, ECONOMY
+    }
+
+    private static final WaitlistEngine instance = new WaitlistEngine();
+
+    private final ConcurrentHashMap<String, Waitlist> waitlists;
+    private final AtomicLong sequence;
+
+    private WaitlistEngine() {
+        this.waitlists = new ConcurrentHashMap<>();
+        this.sequence = new AtomicLong();
+        FlightStorage.getInstance().addObserver(new Observer() {
+            @Override
+            public void notify(int value) {
+            }
+
+            // Removed flights drop their waitlist, so a flight later added with the same id starts with none.
+            @Override
+            public void notify(ChangeEvent<?> event) {
+                for (ChangeEvent.Change<?> change : event.getChanges()) {
+                    if (change.getType() == ChangeEvent.Type.REMOVED) {
+                        waitlists.remove(change.getId());
+                    }
+                }
+            }
+        });
+    }
+
+    public static WaitlistEngine getInstance() {
+        return instance;
+    }
+
+    // Returns the number of passengers waiting for the flight, or -1 if the passenger was already waiting.
+    public int enqueue(Flight flight, Passenger passenger, Priority priority) throws IOException {
+        Waitlist waitlist = this.waitlists.computeIfAbsent(flight.getId(), id -> new Waitlist());
+        WriteAheadLog log = WriteAheadLog.getInstance();
+        log.beginChange();
+        try {
+            synchronized (waitlist) {
+                if (waitlist.waiting.containsKey(passenger.getId())) {
+                    return -1;
+                }
+                log.logWaitlistAdd(passenger, flight, priority);
+                return add(waitlist, passenger, priority);
+            }
+        } finally {
+            log.endChange();
+        }
+    }
+
+    // Puts a passenger back on a waitlist from a snapshot or the log, without logging it again.
+    public int restore(Flight flight, Passenger passenger, Priority priority) {
+        Waitlist waitlist = this.waitlists.computeIfAbsent(flight.getId(), id -> new Waitlist());
+        synchronized (waitlist) {
+            return waitlist.waiting.containsKey(passenger.getId()) ? -1 : add(waitlist, passenger, priority);
+        }
+    }
+
+    private int add(Waitlist waitlist, Passenger passenger, Priority priority) {
+        long ticket = this.sequence.incrementAndGet();
+        waitlist.waiting.put(passenger.getId(), ticket);
+        waitlist.queue.add(new Entry(passenger.getId(), priority, ticket));
+        return waitlist.waiting.size();
+    }
+
+    public boolean isWaiting(Flight flight, Passenger passenger) {
+        Waitlist waitlist = this.waitlists.get(flight.getId());
+        if (waitlist == null) {
+            return false;
+        }
+        synchronized (waitlist) {
+            return waitlist.waiting.containsKey(passenger.getId());
+        }
+    }
+
+    /**
+     * The heap entry stays behind and is skipped when it reaches the top,
+     * even if the passenger queues again. Once stale entries make up half
+     * the heap they are purged in one pass, so removals cost O(log n)
+     * amortized and the heap stays bounded by the live waitlist.
+     */
+    public boolean remove(Flight flight, Passenger passenger) throws IOException {
+        Waitlist waitlist = this.waitlists.get(flight.getId());
+        if (waitlist == null) {
+            return false;
+        }
+        WriteAheadLog log = WriteAheadLog.getInstance();
+        log.beginChange();
+        try {
+            synchronized (waitlist) {
+                if (!waitlist.waiting.containsKey(passenger.getId())) {
+                    return false;
+                }
+                log.logWaitlistRemove(passenger, flight);
+                return drop(waitlist, passenger.getId());
+            }
+        } finally {
+            log.endChange();
+        }
+    }
+
+    // Takes a passenger off a waitlist as the log recorded it, without logging it again.
+    public boolean restoreRemoval(Flight flight, Passenger passenger) {
+        Waitlist waitlist = this.waitlists.get(flight.getId());
+        if (waitlist == null) {
+            return false;
+        }
+        synchronized (waitlist) {
+            return drop(waitlist, passenger.getId());
+        }
+    }
+
+    private static boolean drop(Waitlist waitlist, long passengerId) {
+        if (waitlist.waiting.remove(passengerId) == null) {
+            return false;
+        }
+        waitlist.stale++;
+        if (waitlist.stale * 2 >= waitlist.queue.size()) {
+            waitlist.queue.removeIf(entry -> !waitlist.isLive(entry));
+            waitlist.stale = 0;
+        }
+        return true;
+    }
+
+    // The waiting passengers' ids and priorities, in the order they would be promoted.
+    public LinkedHashMap<Long, Priority> getWaiting(Flight flight) {
+        LinkedHashMap<Long, Priority> waiting = new LinkedHashMap<>();
+        Waitlist waitlist = this.waitlists.get(flight.getId());
+        if (waitlist == null) {
+            return waiting;
+        }
+        ArrayList<Entry> entries;
+        synchronized (waitlist) {
+            entries = new ArrayList<>(waitlist.queue);
+            entries.removeIf(entry -> !waitlist.isLive(entry));
+        }
+        entries.sort(Waitlist.ORDER);
+        for (Entry entry : entries) {
+            waiting.put(entry.passengerId, entry.priority);
+        }
+        return waiting;
+    }
+
+    public int getWaitingCount(Flight flight) {
+        Waitlist waitlist = this.waitlists.get(flight.getId());
+        if (waitlist == null) {
+            return 0;
+        }
+        synchronized (waitlist) {
+            return waitlist.waiting.size();
+        }
+    }
+
+    /**
+     * Books waiting passengers in order for as long as the flight has free
+     * seats, and returns the passengers that were promoted.
+     */
+    public ArrayList<Passenger> promote(Flight flight) {
+        ArrayList<Passenger> promoted = new ArrayList<>();
+        Waitlist waitlist = this.waitlists.get(flight.getId());
+        if (waitlist == null) {
+            return promoted;
+        }
+        ReservationEngine reservations = ReservationEngine.getInstance();
+        WriteAheadLog log = WriteAheadLog.getInstance();
+        // The log's change lock is taken before the waitlist's, the order enqueue, remove and a snapshot capture use.
+        log.beginChange();
+        try {
+            synchronized (waitlist) {
+                while (!waitlist.queue.isEmpty()) {
+                    Entry next = waitlist.queue.peek();
+                    if (!waitlist.isLive(next)) {
+                        waitlist.queue.poll();
+                        waitlist.stale--;
+                        continue;
+                    }
+                    Passenger passenger = PassengerStorage.getInstance().get(next.passengerId);
+                    if (passenger == null) {
+                        waitlist.queue.poll();
+                        waitlist.waiting.remove(next.passengerId);
+                        continue;
+                    }
+                    if (BookingStore.getInstance().isBooked(flight, passenger)) {
+                        // Logged so that the passenger is not waiting again after a restart.
+                        try {
+                            log.logWaitlistRemove(passenger, flight);
+                        } catch (IOException e) {
+                            System.err.println("Warning: could not drop booked passenger " + next.passengerId + " from the waitlist of flight " + flight.getId() + " - " + e.getMessage() + " ⚠️");
+                            break;
+                        }
+                        waitlist.queue.poll();
+                        waitlist.waiting.remove(next.passengerId);
+                        continue;
+                    }
+                    if (!reservations.reserve(flight)) {
+                        break;
+                    }
+                    try {
+                        long lsn = log.logWaitlistPromote(passenger, flight);
+                        try {
+                            new PassengerManager().addPassenger(flight, passenger);
+                        } catch (RuntimeException e) {
+                            log.abort(lsn);
+                            throw e;
+                        }
+                    } catch (Exception e) {
+                        reservations.release(flight);
+                        System.err.println("Warning: could not promote passenger " + next.passengerId + " on flight " + flight.getId() + " - " + e.getMessage() + " ⚠️");
+                        break;
+                    }
+                    waitlist.queue.poll();
+                    waitlist.waiting.remove(next.passengerId);
+                    promoted.add(passenger);
+                }
+            }
+        } finally {
+            log.endChange();
+        }
+        return promoted;
+    }
+
+    private static class Waitlist {
+        private static final Comparator<Entry> ORDER = Comparator.comparing((Entry entry) -> entry.priority).thenComparingLong(entry -> entry.sequence);
+
+        private final PriorityQueue<Entry> queue = new PriorityQueue<>(ORDER);
+        // Passenger id to the sequence of its live heap entry.
+        private final HashMap<Long, Long> waiting = new HashMap<>();
+        private int stale;
+
+        private boolean isLive(Entry entry) {
+            return Long.valueOf(entry.sequence).equals(this.waiting.get(entry.passengerId));
+        }
+    }
+
+    private static class Entry {
+        private final long passengerId;
+        private final Priority priority;
+        private final long sequence;
+
+        private Entry(long passengerId, Priority priority, long sequence) {
+            this.passengerId = passengerId;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package core.model;
 
 import core.design.prototype.Prototype;
+import core.storage.BookingStore;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 
 public class Flight implements Prototype<Flight> {
 
     private final String id;
-    private ArrayList<Passenger> passengers;
     private Plane plane;
     private Location departureLocation;
     private Location scaleLocation;
@@ -20,20 +20,16 @@ public class Flight implements Prototype<Flight> {
 
     public Flight(String id, Plane plane, Location departureLocation, Location arrivalLocation, LocalDateTime departureDate, int hoursDurationArrival, int minutesDurationArrival) {
         this.id = id;
-        this.passengers = new ArrayList<>();
         this.plane = plane;
         this.departureLocation = departureLocation;
         this.arrivalLocation = arrivalLocation;
         this.departureDate = departureDate;
         this.hoursDurationArrival = hoursDurationArrival;
         this.minutesDurationArrival = minutesDurationArrival;
-
-        this.plane.addFlight(this);
     }
 
     public Flight(String id, Plane plane, Location departureLocation, Location scaleLocation, Location arrivalLocation, LocalDateTime departureDate, int hoursDurationArrival, int minutesDurationArrival, int hoursDurationScale, int minutesDurationScale) {
         this.id = id;
-        this.passengers = new ArrayList<>();
         this.plane = plane;
         this.departureLocation = departureLocation;
         this.scaleLocation = scaleLocation;
@@ -43,12 +39,37 @@ public class Flight implements Prototype<Flight> {
         this.minutesDurationArrival = minutesDurationArrival;
         this.hoursDurationScale = hoursDurationScale;
         this.minutesDurationScale = minutesDurationScale;
+    }
 
-        this.plane.addFlight(this);
+    // For flyweights that keep their attributes elsewhere and override every getter.
+    protected Flight(String id) {
+        this.id = id;
     }
 
-    public void addPassenger(Passenger passenger) {
-        this.passengers.add(passenger);
+    // Copies are swapped in for the original by the storage, which never changes a flight it has published.
+    private Flight(Flight other, Plane plane, Location departureLocation, Location scaleLocation, Location arrivalLocation, LocalDateTime departureDate) {
+        this.id = other.getId();
+        this.plane = plane;
+        this.departureLocation = departureLocation;
+        this.scaleLocation = scaleLocation;
+        this.arrivalLocation = arrivalLocation;
+        this.departureDate = departureDate;
+        this.hoursDurationArrival = other.getHoursDurationArrival();
+        this.minutesDurationArrival = other.getMinutesDurationArrival();
+        this.hoursDurationScale = other.getHoursDurationScale();
+        this.minutesDurationScale = other.getMinutesDurationScale();
+    }
+
+    public Flight withDepartureDate(LocalDateTime departureDate) {
+        return new Flight(this, this.plane, this.departureLocation, this.scaleLocation, this.arrivalLocation, departureDate);
+    }
+
+    public Flight withPlane(Plane plane) {
+        return new Flight(this, plane, this.departureLocation, this.scaleLocation, this.arrivalLocation, this.departureDate);
+    }
+
+    public Flight withLocations(Location departureLocation, Location scaleLocation, Location arrivalLocation) {
+        return new Flight(this, this.plane, departureLocation, scaleLocation, arrivalLocation, this.departureDate);
     }
 
     public String getId() {
@@ -92,31 +113,25 @@ public class Flight implements Prototype<Flight> {
     }
     
     public ArrayList<Passenger> getPassengers() {
-        return passengers;
+        return BookingStore.getInstance().getPassengers(this);
     }
     
     public void setDepartureDate(LocalDateTime departureDate) {
         this.departureDate = departureDate;
     }
 
-
     public int getNumPassengers() {
-        return passengers.size();
-    }
-
-    public void setPassengers(ArrayList<Passenger> passengers) {
-        this.passengers = passengers;
+        return BookingStore.getInstance().countPassengers(this);
     }
 
     @Override
     public Flight clone(){
         Flight copy;
         if (this.getScaleLocation() != null){
-            copy = new Flight(this.id,this.plane.clone(),this.departureLocation.clone(),this.scaleLocation.clone(),this.arrivalLocation.clone(),this.departureDate,this.hoursDurationArrival,this.minutesDurationArrival,this.hoursDurationScale,this.minutesDurationScale);
+            copy = new Flight(this.getId(),this.getPlane().clone(),this.getDepartureLocation().clone(),this.getScaleLocation().clone(),this.getArrivalLocation().clone(),this.getDepartureDate(),this.getHoursDurationArrival(),this.getMinutesDurationArrival(),this.getHoursDurationScale(),this.getMinutesDurationScale());
         }else{
-            copy = new Flight(this.id,this.plane.clone(),this.departureLocation.clone(),this.arrivalLocation.clone(),this.departureDate,this.hoursDurationArrival,this.minutesDurationArrival);
+            copy = new Flight(this.getId(),this.getPlane().clone(),this.getDepartureLocation().clone(),this.getArrivalLocation().clone(),this.getDepartureDate(),this.getHoursDurationArrival(),this.getMinutesDurationArrival());
         }
-        copy.setPassengers(this.passengers);
         return copy;
     }
 
@@ -1,6 +1,7 @@
 package core.model;
 
 import core.design.prototype.Prototype;
+import core.storage.BookingStore;
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.ArrayList;
@@ -14,7 +15,6 @@ public class Passenger implements Prototype<Passenger> {
     private int countryPhoneCode;
     private long phone;
     private String country;
-    private ArrayList<Flight> flights;
 
     public Passenger(long id, String firstname, String lastname, LocalDate birthDate, int countryPhoneCode, long phone, String country) {
         this.id = id;
@@ -24,11 +24,6 @@ public class Passenger implements Prototype<Passenger> {
         this.countryPhoneCode = countryPhoneCode;
         this.phone = phone;
         this.country = country;
-        this.flights = new ArrayList<>();
-    }
-
-    public void addFlight(Flight flight) {
-        this.flights.add(flight);
     }
 
     public long getId() {
@@ -60,7 +55,7 @@ public class Passenger implements Prototype<Passenger> {
     }
 
     public ArrayList<Flight> getFlights() {
-        return flights;
+        return BookingStore.getInstance().getFlights(this);
     }
 
     public void setFirstname(String firstname) {
@@ -92,17 +87,12 @@ public class Passenger implements Prototype<Passenger> {
     }
 
     public int getNumFlights() {
-        return flights.size();
-    }
-
-    public void setFlights(ArrayList<Flight> flights) {
-        this.flights = flights;
+        return BookingStore.getInstance().countFlights(this);
     }
 
     @Override
     public Passenger clone() {
         Passenger copy = new Passenger(this.id, this.firstname, this.lastname, this.birthDate, this.countryPhoneCode, this.phone, this.country);
-        copy.setFlights(this.flights);
         return copy;
     }
 }
@@ -1,6 +1,7 @@
 package core.model;
 
 import core.design.prototype.Prototype;
+import core.storage.FlightStorage;
 import java.util.ArrayList;
 
 public class Plane implements Prototype<Plane>{
@@ -10,7 +11,6 @@ public class Plane implements Prototype<Plane>{
     private String model;
     private final int maxCapacity;
     private String airline;
-    private ArrayList<Flight> flights;
 
     public Plane(String id, String brand, String model, int maxCapacity, String airline) {
         this.id = id;
@@ -18,13 +18,8 @@ public class Plane implements Prototype<Plane>{
         this.model = model;
         this.maxCapacity = maxCapacity;
         this.airline = airline;
-        this.flights = new ArrayList<>();
     }
 
-    public void addFlight(Flight flight) {
-        this.flights.add(flight);
-    }
-    
     public String getId() {
         return id;
     }
@@ -45,16 +40,13 @@ public class Plane implements Prototype<Plane>{
         return airline;
     }
 
+    // Read from the storage's by-plane index under its lock, so no list on the plane is shared between threads.
     public ArrayList<Flight> getFlights() {
-        return flights;
-    }
-    
-    public void setFlights(ArrayList<Flight> flights) {
-        this.flights = flights;
+        return FlightStorage.getInstance().findByPlane(this.id);
     }
-    
+
     public int getNumFlights() {
-        return flights.size();
+        return FlightStorage.getInstance().countByPlane(this.id);
     }
 
     
@@ -63,7 +55,6 @@ public class Plane implements Prototype<Plane>{
     public Plane clone(){
         
         Plane copy = new Plane(this.id,this.brand,this.model,this.maxCapacity,this.airline);
-        copy.setFlights(this.flights);
         
         return copy;
 
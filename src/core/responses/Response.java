@@ -1,5 +1,7 @@
 package core.responses;
 
+import java.util.List;
+
 public class Response {
     
     private String message;
@@ -28,5 +30,23 @@ public class Response {
     public Object getObject() {
         return object;
     }
+
+    /**
+     * Reads the object as a list of the given type. Every element is checked,
+     * so a controller that returned the wrong kind fails here rather than in
+     * the middle of filling a component.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getList(Class<T> type) {
+        if (!(object instanceof List)) {
+            throw new ClassCastException("The response does not hold a list");
+        }
+        for (Object item : (List<?>) object) {
+            if (item != null && !type.isInstance(item)) {
+                throw new ClassCastException("Element " + item + " is not a " + type.getSimpleName());
+            }
+        }
+        return (List<T>) object;
+    }
     
 }
@@ -0,0 +1,114 @@
+package core.storage;
+
+import java.util.Arrays;
+
+/**
+ * One side of a many-to-many relation stored CSR style: the neighbours of
+ * every node sit in one contiguous run of a shared int array. Runs carry
+ * spare capacity so appends are O(1); a full run moves to the end of the
+ * array with double the room, and the array is compacted once abandoned runs
+ * take up more than half of it.
+ */
+class AdjacencyTable {
+
+    private static final int MIN_RUN = 2;
+
+    private int[] start;
+    private int[] count;
+    private int[] capacity;
+    private int[] edges;
+    private int used;
+    private int garbage;
+
+    AdjacencyTable() {
+        this.start = new int[16];
+        this.count = new int[16];
+        this.capacity = new int[16];
+        this.edges = new int[64];
+    }
+
+    void add(int node, int target) {
+        ensureNode(node);
+        if (this.count[node] == this.capacity[node]) {
+            relocate(node, Math.max(MIN_RUN, this.capacity[node] * 2));
+        }
+        this.edges[this.start[node] + this.count[node]] = target;
+        this.count[node]++;
+    }
+
+    // Removes one occurrence of the target and keeps the remaining neighbours in order.
+    boolean remove(int node, int target) {
+        if (node >= this.count.length) {
+            return false;
+        }
+        int from = this.start[node];
+        int to = from + this.count[node];
+        for (int i = from; i < to; i++) {
+            if (this.edges[i] == target) {
+                System.arraycopy(this.edges, i + 1, this.edges, i, to - i - 1);
+                this.count[node]--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Drops every neighbour of the node and returns them so the other side can be updated.
+    int[] clear(int node) {
+        int[] removed = neighbours(node);
+        if (node < this.count.length) {
+            this.count[node] = 0;
+        }
+        return removed;
+    }
+
+    int degree(int node) {
+        return node < this.count.length ? this.count[node] : 0;
+    }
+
+    int[] neighbours(int node) {
+        if (node >= this.count.length) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(this.edges, this.start[node], this.start[node] + this.count[node]);
+    }
+
+    private void ensureNode(int node) {
+        if (node >= this.count.length) {
+            int size = Math.max(node + 1, this.count.length * 2);
+            this.start = Arrays.copyOf(this.start, size);
+            this.count = Arrays.copyOf(this.count, size);
+            this.capacity = Arrays.copyOf(this.capacity, size);
+        }
+    }
+
+    private void relocate(int node, int newCapacity) {
+        if (this.used + newCapacity > this.edges.length) {
+            if (this.garbage > this.used / 2) {
+                compact();
+            }
+            if (this.used + newCapacity > this.edges.length) {
+                this.edges = Arrays.copyOf(this.edges, Math.max(this.edges.length * 2, this.used + newCapacity));
+            }
+        }
+        System.arraycopy(this.edges, this.start[node], this.edges, this.used, this.count[node]);
+        this.garbage += this.capacity[node];
+        this.start[node] = this.used;
+        this.capacity[node] = newCapacity;
+        this.used += newCapacity;
+    }
+
+    // Rewrites the runs back to back in node order, keeping each run's spare capacity.
+    private void compact() {
+        int[] packed = new int[this.edges.length];
+        int position = 0;
+        for (int node = 0; node < this.count.length; node++) {
+            System.arraycopy(this.edges, this.start[node], packed, position, this.count[node]);
+            this.start[node] = position;
+            position += this.capacity[node];
+        }
+        this.edges = packed;
+        this.used = position;
+        this.garbage = 0;
+    }
+}
@@ -0,0 +1,287 @@
+package core.storage;
+
+import core.functions.WaitlistEngine;
+import core.model.Flight;
+import core.model.Location;
+import core.model.Passenger;
+import core.model.Plane;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versioned binary image of the four storages, their bookings and the
+ * flights' waitlists. Flights
+ * reference planes, locations and passengers by their position in the file,
+ * so loading is one sequential read with no id lookups or date parsing.
+ */
+public class BinarySnapshot {
+
+    private static final int MAGIC = 0x41525053;
+    // Version 2 adds each flight's waitlist after its bookings.
+    private static final short FORMAT_VERSION = 2;
+    private static final short FIRST_VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int NO_REFERENCE = -1;
+
+    private final FlightStorage flightStorage;
+    private final PlaneStorage planeStorage;
+    private final LocationStorage locationStorage;
+    private final PassengerStorage passengerStorage;
+
+    public BinarySnapshot(FlightStorage flightStorage, PlaneStorage planeStorage, LocationStorage locationStorage, PassengerStorage passengerStorage) {
+        this.flightStorage = flightStorage;
+        this.planeStorage = planeStorage;
+        this.locationStorage = locationStorage;
+        this.passengerStorage = passengerStorage;
+    }
+
+    /**
+     * Writes the current state to a temporary file and moves it over the
+     * target, so a crash while saving never leaves a half-written snapshot.
+     * The storages and bookings are copied while no logged change is waiting
+     * to be applied, and the log sequence number returned and stored with
+     * them tells recovery which log records are already included.
+     */
+    public long write(Path path, WriteAheadLog log) throws IOException {
+        Image image = new Image();
+        BookingStore bookingStore = BookingStore.getInstance();
+        WaitlistEngine waitlists = WaitlistEngine.getInstance();
+        long lsn = log.capture(() -> {
+            image.planes = this.planeStorage.getSnapshot();
+            image.locations = this.locationStorage.getSnapshot();
+            image.passengers = this.passengerStorage.getSnapshot();
+            image.flights = this.flightStorage.getSnapshot();
+            image.bookings = new ArrayList<>(image.flights.size());
+            image.waitlists = new ArrayList<>(image.flights.size());
+            for (Flight flight : image.flights) {
+                image.bookings.add(bookingStore.getPassengers(flight));
+                image.waitlists.add(waitlists.getWaiting(flight));
+            }
+        });
+        write(path, lsn, image);
+        return lsn;
+    }
+
+    private void write(Path path, long lsn, Image image) throws IOException {
+        List<Plane> planes = image.planes;
+        List<Location> locations = image.locations;
+        List<Passenger> passengers = image.passengers;
+        List<Flight> flights = image.flights;
+
+        HashMap<String, Integer> planeIndex = new HashMap<>();
+        HashMap<String, Integer> locationIndex = new HashMap<>();
+        HashMap<Long, Integer> passengerIndex = new HashMap<>();
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            out.writeLong(lsn);
+
+            out.writeInt(planes.size());
+            for (Plane plane : planes) {
+                planeIndex.put(plane.getId(), planeIndex.size());
+                out.writeUTF(plane.getId());
+                out.writeUTF(plane.getBrand());
+                out.writeUTF(plane.getModel());
+                out.writeInt(plane.getMaxCapacity());
+                out.writeUTF(plane.getAirline());
+            }
+
+            out.writeInt(locations.size());
+            for (Location location : locations) {
+                locationIndex.put(location.getAirportId(), locationIndex.size());
+                out.writeUTF(location.getAirportId());
+                out.writeUTF(location.getAirportName());
+                out.writeUTF(location.getAirportCity());
+                out.writeUTF(location.getAirportCountry());
+                out.writeDouble(location.getAirportLatitude());
+                out.writeDouble(location.getAirportLongitude());
+            }
+
+            out.writeInt(passengers.size());
+            for (Passenger passenger : passengers) {
+                passengerIndex.put(passenger.getId(), passengerIndex.size());
+                out.writeLong(passenger.getId());
+                out.writeUTF(passenger.getFirstname());
+                out.writeUTF(passenger.getLastname());
+                out.writeLong(passenger.getBirthDate().toEpochDay());
+                out.writeInt(passenger.getCountryPhoneCode());
+                out.writeLong(passenger.getPhone());
+                out.writeUTF(passenger.getCountry());
+            }
+
+            out.writeInt(flights.size());
+            for (int i = 0; i < flights.size(); i++) {
+                Flight flight = flights.get(i);
+                out.writeUTF(flight.getId());
+                out.writeInt(planeIndex.get(flight.getPlane().getId()));
+                out.writeInt(locationIndex.get(flight.getDepartureLocation().getAirportId()));
+                out.writeInt(flight.getScaleLocation() == null ? NO_REFERENCE : locationIndex.get(flight.getScaleLocation().getAirportId()));
+                out.writeInt(locationIndex.get(flight.getArrivalLocation().getAirportId()));
+                out.writeLong(flight.getDepartureDate().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(flight.getHoursDurationArrival());
+                out.writeInt(flight.getMinutesDurationArrival());
+                out.writeInt(flight.getHoursDurationScale());
+                out.writeInt(flight.getMinutesDurationScale());
+                List<Passenger> booked = image.bookings.get(i);
+                out.writeInt(booked.size());
+                for (Passenger passenger : booked) {
+                    Integer index = passengerIndex.get(passenger.getId());
+                    out.writeInt(index == null ? NO_REFERENCE : index);
+                }
+                Map<Long, WaitlistEngine.Priority> waiting = image.waitlists.get(i);
+                out.writeInt(waiting.size());
+                for (Map.Entry<Long, WaitlistEngine.Priority> entry : waiting.entrySet()) {
+                    Integer index = passengerIndex.get(entry.getKey());
+                    out.writeInt(index == null ? NO_REFERENCE : index);
+                    out.writeByte(entry.getValue().ordinal());
+                }
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot into the storages and returns the log sequence number
+     * it was written at. Nothing is stored or booked unless the whole file
+     * reads cleanly.
+     */
+    public long read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an airport snapshot: " + path);
+            }
+            short version = in.readShort();
+            if (version < FIRST_VERSION || version > FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            long lsn = in.readLong();
+            StringDictionary dictionary = StringDictionary.getInstance();
+
+            int planeCount = count(in);
+            ArrayList<Plane> planes = new ArrayList<>(planeCount);
+            for (int i = 0; i < planeCount; i++) {
+                planes.add(new Plane(in.readUTF(), dictionary.canonicalize(StringDictionary.Field.PLANE_BRAND, in.readUTF()), dictionary.canonicalize(StringDictionary.Field.PLANE_MODEL, in.readUTF()), in.readInt(), dictionary.canonicalize(StringDictionary.Field.PLANE_AIRLINE, in.readUTF())));
+            }
+
+            int locationCount = count(in);
+            ArrayList<Location> locations = new ArrayList<>(locationCount);
+            for (int i = 0; i < locationCount; i++) {
+                locations.add(new Location(in.readUTF(), in.readUTF(), dictionary.canonicalize(StringDictionary.Field.LOCATION_CITY, in.readUTF()), dictionary.canonicalize(StringDictionary.Field.LOCATION_COUNTRY, in.readUTF()), in.readDouble(), in.readDouble()));
+            }
+
+            int passengerCount = count(in);
+            ArrayList<Passenger> passengers = new ArrayList<>(passengerCount);
+            for (int i = 0; i < passengerCount; i++) {
+                passengers.add(new Passenger(in.readLong(), in.readUTF(), in.readUTF(), LocalDate.ofEpochDay(in.readLong()), in.readInt(), in.readLong(), dictionary.canonicalize(StringDictionary.Field.PASSENGER_COUNTRY, in.readUTF())));
+            }
+
+            int flightCount = count(in);
+            ArrayList<Flight> flights = new ArrayList<>(flightCount);
+            int[][] bookings = new int[flightCount][];
+            int[][] waiting = new int[flightCount][];
+            WaitlistEngine.Priority[][] priorities = new WaitlistEngine.Priority[flightCount][];
+            for (int i = 0; i < flightCount; i++) {
+                String id = in.readUTF();
+                Plane plane = reference(planes, in.readInt());
+                Location departure = reference(locations, in.readInt());
+                int scaleIndex = in.readInt();
+                Location arrival = reference(locations, in.readInt());
+                LocalDateTime departureDate = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+                int hoursArrival = in.readInt();
+                int minutesArrival = in.readInt();
+                int hoursScale = in.readInt();
+                int minutesScale = in.readInt();
+                Flight flight = scaleIndex == NO_REFERENCE
+                        ? new Flight(id, plane, departure, arrival, departureDate, hoursArrival, minutesArrival)
+                        : new Flight(id, plane, departure, reference(locations, scaleIndex), arrival, departureDate, hoursArrival, minutesArrival, hoursScale, minutesScale);
+                bookings[i] = new int[count(in)];
+                for (int b = 0; b < bookings[i].length; b++) {
+                    int passengerIndex = in.readInt();
+                    if (passengerIndex != NO_REFERENCE) {
+                        reference(passengers, passengerIndex);
+                    }
+                    bookings[i][b] = passengerIndex;
+                }
+                waiting[i] = new int[version > FIRST_VERSION ? count(in) : 0];
+                priorities[i] = new WaitlistEngine.Priority[waiting[i].length];
+                for (int w = 0; w < waiting[i].length; w++) {
+                    int passengerIndex = in.readInt();
+                    if (passengerIndex != NO_REFERENCE) {
+                        reference(passengers, passengerIndex);
+                    }
+                    waiting[i][w] = passengerIndex;
+                    priorities[i][w] = reference(List.of(WaitlistEngine.Priority.values()), in.readByte());
+                }
+                flights.add(flight);
+            }
+            if (in.read() != -1) {
+                throw new IOException("Unexpected data after the end of the snapshot: " + path);
+            }
+
+            this.planeStorage.addAll(planes);
+            this.locationStorage.addAll(locations);
+            this.passengerStorage.addAll(passengers);
+            BookingStore bookingStore = BookingStore.getInstance();
+            for (int i = 0; i < flightCount; i++) {
+                for (int passengerIndex : bookings[i]) {
+                    if (passengerIndex != NO_REFERENCE) {
+                        bookingStore.book(flights.get(i), passengers.get(passengerIndex));
+                    }
+                }
+            }
+            this.flightStorage.addAll(flights);
+            WaitlistEngine waitlists = WaitlistEngine.getInstance();
+            for (int i = 0; i < flightCount; i++) {
+                for (int w = 0; w < waiting[i].length; w++) {
+                    if (waiting[i][w] != NO_REFERENCE) {
+                        waitlists.restore(flights.get(i), passengers.get(waiting[i][w]), priorities[i][w]);
+                    }
+                }
+            }
+            return lsn;
+        }
+    }
+
+    private static int count(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt snapshot: negative count " + count);
+        }
+        return count;
+    }
+
+    private static <T> T reference(List<T> items, int index) throws IOException {
+        if (index < 0 || index >= items.size()) {
+            throw new IOException("Corrupt snapshot: reference " + index + " out of " + items.size());
+        }
+        return items.get(index);
+    }
+
+    // What is written, copied in one go so the bookings match the storages.
+    private static class Image {
+        private List<Plane> planes;
+        private List<Location> locations;
+        private List<Passenger> passengers;
+        private List<Flight> flights;
+        private ArrayList<List<Passenger>> bookings;
+        private ArrayList<Map<Long, WaitlistEngine.Priority>> waitlists;
+    }
+}
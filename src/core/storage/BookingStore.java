@@ -0,0 +1,271 @@
+package core.storage;
+
+import core.model.Flight;
+import core.model.Passenger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Holds the flight/passenger bookings once, instead of every Flight and
+ * Passenger keeping its own list of the other side. Entities get a dense
+ * int slot keyed by their id in unboxed open-addressing maps, and each
+ * direction of the relation is an AdjacencyTable over those slots, so a
+ * replacement object with the same id keeps its bookings. Every (flight, passenger) pair is also kept in a hash
+ * set, which makes duplicate checks O(1) whatever the size of the flight.
+ */
+public class BookingStore {
+
+    private static final BookingStore instance = new BookingStore();
+
+    private final ReentrantReadWriteLock lock;
+    private final StringIntMap flightSlots;
+    private final LongIntMap passengerSlots;
+    private final ArrayDeque<Integer> freeFlightSlots;
+    private final ArrayDeque<Integer> freePassengerSlots;
+    private final AdjacencyTable passengersByFlight;
+    private final AdjacencyTable flightsByPassenger;
+    private final LongHashSet bookings;
+    private Flight[] flights;
+    private Passenger[] passengers;
+    private int flightCount;
+    private int passengerCount;
+
+    private BookingStore() {
+        this.lock = new ReentrantReadWriteLock();
+        this.flightSlots = new StringIntMap();
+        this.passengerSlots = new LongIntMap();
+        this.freeFlightSlots = new ArrayDeque<>();
+        this.freePassengerSlots = new ArrayDeque<>();
+        this.passengersByFlight = new AdjacencyTable();
+        this.flightsByPassenger = new AdjacencyTable();
+        this.bookings = new LongHashSet();
+        this.flights = new Flight[16];
+        this.passengers = new Passenger[16];
+    }
+
+    public static BookingStore getInstance() {
+        return instance;
+    }
+
+    // Returns false without changing anything when the passenger is already on the flight.
+    public boolean book(Flight flight, Passenger passenger) {
+        lock.writeLock().lock();
+        try {
+            int flightSlot = flightSlot(flight);
+            int passengerSlot = passengerSlot(passenger);
+            if (!this.bookings.add(pack(flightSlot, passengerSlot))) {
+                return false;
+            }
+            this.passengersByFlight.add(flightSlot, passengerSlot);
+            this.flightsByPassenger.add(passengerSlot, flightSlot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Books every passenger on every flight under one lock. Nothing is
+     * changed and false is returned if any of the pairs is already booked.
+     */
+    public boolean bookAll(Collection<Flight> flights, Collection<Passenger> passengers) {
+        lock.writeLock().lock();
+        try {
+            for (Flight flight : flights) {
+                int flightSlot = this.flightSlots.get(flight.getId());
+                for (Passenger passenger : passengers) {
+                    int passengerSlot = this.passengerSlots.get(passenger.getId());
+                    if (flightSlot >= 0 && passengerSlot >= 0 && this.bookings.contains(pack(flightSlot, passengerSlot))) {
+                        return false;
+                    }
+                }
+            }
+            for (Flight flight : flights) {
+                int flightSlot = flightSlot(flight);
+                for (Passenger passenger : passengers) {
+                    int passengerSlot = passengerSlot(passenger);
+                    if (this.bookings.add(pack(flightSlot, passengerSlot))) {
+                        this.passengersByFlight.add(flightSlot, passengerSlot);
+                        this.flightsByPassenger.add(passengerSlot, flightSlot);
+                    }
+                }
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean cancel(Flight flight, Passenger passenger) {
+        lock.writeLock().lock();
+        try {
+            int flightSlot = this.flightSlots.get(flight.getId());
+            int passengerSlot = this.passengerSlots.get(passenger.getId());
+            if (flightSlot < 0 || passengerSlot < 0 || !this.bookings.remove(pack(flightSlot, passengerSlot))) {
+                return false;
+            }
+            this.flightsByPassenger.remove(passengerSlot, flightSlot);
+            this.passengersByFlight.remove(flightSlot, passengerSlot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isBooked(Flight flight, Passenger passenger) {
+        lock.readLock().lock();
+        try {
+            int flightSlot = this.flightSlots.get(flight.getId());
+            int passengerSlot = this.passengerSlots.get(passenger.getId());
+            return flightSlot >= 0 && passengerSlot >= 0 && this.bookings.contains(pack(flightSlot, passengerSlot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ArrayList<Passenger> getPassengers(Flight flight) {
+        lock.readLock().lock();
+        try {
+            ArrayList<Passenger> result = new ArrayList<>();
+            int slot = this.flightSlots.get(flight.getId());
+            if (slot >= 0) {
+                for (int passengerSlot : this.passengersByFlight.neighbours(slot)) {
+                    result.add(this.passengers[passengerSlot]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ArrayList<Flight> getFlights(Passenger passenger) {
+        lock.readLock().lock();
+        try {
+            ArrayList<Flight> result = new ArrayList<>();
+            int slot = this.passengerSlots.get(passenger.getId());
+            if (slot >= 0) {
+                for (int flightSlot : this.flightsByPassenger.neighbours(slot)) {
+                    result.add(this.flights[flightSlot]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countPassengers(Flight flight) {
+        lock.readLock().lock();
+        try {
+            int slot = this.flightSlots.get(flight.getId());
+            return slot < 0 ? 0 : this.passengersByFlight.degree(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countFlights(Passenger passenger) {
+        lock.readLock().lock();
+        try {
+            int slot = this.passengerSlots.get(passenger.getId());
+            return slot < 0 ? 0 : this.flightsByPassenger.degree(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Points an already known id at its newest object; unknown ids are ignored.
+    public void replace(Flight flight) {
+        lock.writeLock().lock();
+        try {
+            int slot = this.flightSlots.get(flight.getId());
+            if (slot >= 0) {
+                this.flights[slot] = flight;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void replace(Passenger passenger) {
+        lock.writeLock().lock();
+        try {
+            int slot = this.passengerSlots.get(passenger.getId());
+            if (slot >= 0) {
+                this.passengers[slot] = passenger;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFlight(String id) {
+        lock.writeLock().lock();
+        try {
+            int slot = this.flightSlots.remove(id);
+            if (slot < 0) {
+                return;
+            }
+            for (int passengerSlot : this.passengersByFlight.clear(slot)) {
+                this.bookings.remove(pack(slot, passengerSlot));
+                this.flightsByPassenger.remove(passengerSlot, slot);
+            }
+            this.flights[slot] = null;
+            this.freeFlightSlots.push(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removePassenger(long id) {
+        lock.writeLock().lock();
+        try {
+            int slot = this.passengerSlots.remove(id);
+            if (slot < 0) {
+                return;
+            }
+            for (int flightSlot : this.flightsByPassenger.clear(slot)) {
+                this.bookings.remove(pack(flightSlot, slot));
+                this.passengersByFlight.remove(flightSlot, slot);
+            }
+            this.passengers[slot] = null;
+            this.freePassengerSlots.push(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long pack(int flightSlot, int passengerSlot) {
+        return ((long) flightSlot << 32) | passengerSlot;
+    }
+
+    private int flightSlot(Flight flight) {
+        int slot = this.flightSlots.get(flight.getId());
+        if (slot < 0) {
+            slot = this.freeFlightSlots.isEmpty() ? this.flightCount++ : this.freeFlightSlots.pop();
+            if (slot == this.flights.length) {
+                this.flights = Arrays.copyOf(this.flights, slot * 2);
+            }
+            this.flightSlots.put(flight.getId(), slot);
+        }
+        this.flights[slot] = flight;
+        return slot;
+    }
+
+    private int passengerSlot(Passenger passenger) {
+        int slot = this.passengerSlots.get(passenger.getId());
+        if (slot < 0) {
+            slot = this.freePassengerSlots.isEmpty() ? this.passengerCount++ : this.freePassengerSlots.pop();
+            if (slot == this.passengers.length) {
+                this.passengers = Arrays.copyOf(this.passengers, slot * 2);
+            }
+            this.passengerSlots.put(passenger.getId(), slot);
+        }
+        this.passengers[slot] = passenger;
+        return slot;
+    }
+}
@@ -9,17 +9,25 @@ import core.storage.FlightStorage;
 import core.storage.LocationStorage;
 import core.storage.PassengerStorage;
 import core.storage.PlaneStorage;
-import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class DataProcessor {
 
+    private static final long PARALLEL_THRESHOLD_BYTES = 16L << 20;
+
     private final FlightStorage flights;
     private final PlaneStorage planes;
     private final LocationStorage locations;
@@ -32,148 +40,244 @@ public class DataProcessor {
         this.passengers = passengers;
     }
 
-    // Moved from LineFileReader.java
-    private String readFile(String path) throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            StringBuilder sb = new StringBuilder();
-            String linea;
-            while ((linea = br.readLine()) != null) {
-                sb.append(linea);
+    /**
+     * Streams the objects of a top-level JSON array one at a time. Only the
+     * element being handled is ever materialized, so memory use does not
+     * grow with the size of the file.
+     */
+    private void forEachElement(String path, Consumer<JSONObject> action) throws IOException {
+        try (MappedFileReader reader = new MappedFileReader(Path.of(path))) {
+            JSONTokener tokener = new JSONTokener(reader);
+            if (tokener.nextClean() != '[') {
+                throw tokener.syntaxError("A JSON array was expected");
+            }
+            char next = tokener.nextClean();
+            while (next != ']') {
+                tokener.back();
+                action.accept(new JSONObject(tokener));
+                next = tokener.nextClean();
+                if (next == ',') {
+                    next = tokener.nextClean();
+                } else if (next != ']') {
+                    throw tokener.syntaxError("Expected a ',' or ']'");
+                }
             }
-            return sb.toString();
+        } catch (JSONException e) {
+            throw new IOException("Could not read " + path + ": " + e.getMessage(), e);
         }
     }
 
     public void loadFlightsFromFile(String path) throws IOException {
-        String jsonStr = readFile(path); // Use the internal readFile method
-        JSONArray jsonArray = new JSONArray(jsonStr);
-        for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject flightJson = jsonArray.getJSONObject(i);
+        if (Files.size(Path.of(path)) >= PARALLEL_THRESHOLD_BYTES) {
+            loadFlightsInParallel(path, ForkJoinPool.commonPool());
+            return;
+        }
+        ArrayList<Flight> loaded = new ArrayList<>();
+        forEachElement(path, flightJson -> {
+            FlightRecord record = parseFlight(flightJson, this.planes::get, this.locations::get, System.err::println);
+            if (record != null) {
+                loaded.add(record.toFlight());
+            }
+        });
+        this.flights.addAll(loaded);
+    }
 
-            try {
-                String id = flightJson.getString("id");
+    /**
+     * Parses and validates record-aligned chunks of the file in parallel,
+     * resolving references against read-only copies of the planes and
+     * locations. Flights are then built and stored in file order with one
+     * bulk insert, so planes list their flights in the same order as a
+     * sequential load.
+     */
+    public void loadFlightsInParallel(String path, ForkJoinPool pool) throws IOException {
+        HashMap<String, Plane> planeIndex = new HashMap<>();
+        for (Plane plane : this.planes.getSnapshot()) {
+            planeIndex.put(plane.getId(), plane);
+        }
+        HashMap<String, Location> locationIndex = new HashMap<>();
+        for (Location location : this.locations.getSnapshot()) {
+            locationIndex.put(location.getAirportId(), location);
+        }
+        ParallelFlightParser parser = new ParallelFlightParser(Path.of(path),
+                (flightJson, warnings) -> parseFlight(flightJson, planeIndex::get, locationIndex::get, warnings::add));
+        ArrayList<Flight> loaded = new ArrayList<>();
+        for (ParallelFlightParser.Chunk chunk : parser.parse(pool)) {
+            chunk.warnings.forEach(System.err::println);
+            for (FlightRecord record : chunk.records) {
+                loaded.add(record.toFlight());
+            }
+        }
+        this.flights.addAll(loaded);
+    }
 
-                String planeId = flightJson.getString("plane");
-                Plane plane = this.planes.get(planeId);
-                if (plane == null) {
-                    System.err.println("Warning: Plane " + planeId + " not found for flight " + id + " ✈️");
-                    continue;
-                }
+    // Returns null when the record is invalid, after reporting why.
+    static FlightRecord parseFlight(JSONObject flightJson, Function<String, Plane> planes, Function<String, Location> locations, Consumer<String> warnings) {
+        try {
+            String id = flightJson.getString("id");
 
-                String departureLocationId = flightJson.getString("departureLocation");
-                Location departureLocation = this.locations.get(departureLocationId);
-                if (departureLocation == null) {
-                    System.err.println("Warning: Departure location " + departureLocationId + " not found for flight " + id + " 📍");
-                    continue;
-                }
+            String planeId = flightJson.getString("plane");
+            Plane plane = planes.apply(planeId);
+            if (plane == null) {
+                warnings.accept("Warning: Plane " + planeId + " not found for flight " + id + " ✈️");
+                return null;
+            }
 
-                String arrivalLocationId = flightJson.getString("arrivalLocation");
-                Location arrivalLocation = this.locations.get(arrivalLocationId);
-                if (arrivalLocation == null) {
-                    System.err.println("Warning: Arrival location " + arrivalLocationId + " not found for flight " + id + " 🗺️");
-                    continue;
-                }
+            String departureLocationId = flightJson.getString("departureLocation");
+            Location departureLocation = locations.apply(departureLocationId);
+            if (departureLocation == null) {
+                warnings.accept("Warning: Departure location " + departureLocationId + " not found for flight " + id + " 📍");
+                return null;
+            }
 
-                LocalDateTime departureDate = LocalDateTime.parse(flightJson.getString("departureDate"));
-
-                int hoursDurationArrival = flightJson.getInt("hoursDurationArrival");
-                int minutesDurationArrival = flightJson.getInt("minutesDurationArrival");
-
-                String scaleLocationId = flightJson.optString("scaleLocation", null);
-                int hoursDurationScale = flightJson.optInt("hoursDurationScale", 0);
-                int minutesDurationScale = flightJson.optInt("minutesDurationScale", 0);
-
-                Flight newFlight;
-                if (scaleLocationId == null || scaleLocationId.isEmpty() || flightJson.isNull("scaleLocation")) {
-                    newFlight = new Flight(
-                            id, plane, departureLocation, arrivalLocation,
-                            departureDate, hoursDurationArrival, minutesDurationArrival
-                    );
-                } else {
-                    Location scaleLocation = this.locations.get(scaleLocationId);
-                    if (scaleLocation == null) {
-                        System.err.println("Warning: Scale location " + scaleLocationId + " not found for flight " + id + " 🌍");
-                        continue;
-                    }
-                    newFlight = new Flight(
-                            id, plane, departureLocation, scaleLocation, arrivalLocation,
-                            departureDate, hoursDurationArrival, minutesDurationArrival,
-                            hoursDurationScale, minutesDurationScale
-                    );
-                }
-                this.flights.add(newFlight);
+            String arrivalLocationId = flightJson.getString("arrivalLocation");
+            Location arrivalLocation = locations.apply(arrivalLocationId);
+            if (arrivalLocation == null) {
+                warnings.accept("Warning: Arrival location " + arrivalLocationId + " not found for flight " + id + " 🗺️");
+                return null;
+            }
 
-            } catch (Exception e) {
-                System.err.println("Error loading flight: " + flightJson.toString() + " - " + e.getMessage() + " ❌");
+            LocalDateTime departureDate = IsoDateParser.parseDateTime(flightJson.getString("departureDate"));
+
+            int hoursDurationArrival = flightJson.getInt("hoursDurationArrival");
+            int minutesDurationArrival = flightJson.getInt("minutesDurationArrival");
+
+            String scaleLocationId = flightJson.optString("scaleLocation", null);
+            int hoursDurationScale = flightJson.optInt("hoursDurationScale", 0);
+            int minutesDurationScale = flightJson.optInt("minutesDurationScale", 0);
+
+            Location scaleLocation = null;
+            if (!(scaleLocationId == null || scaleLocationId.isEmpty() || flightJson.isNull("scaleLocation"))) {
+                scaleLocation = locations.apply(scaleLocationId);
+                if (scaleLocation == null) {
+                    warnings.accept("Warning: Scale location " + scaleLocationId + " not found for flight " + id + " 🌍");
+                    return null;
+                }
             }
+            return new FlightRecord(id, plane, departureLocation, scaleLocation, arrivalLocation, departureDate,
+                    hoursDurationArrival, minutesDurationArrival, hoursDurationScale, minutesDurationScale);
+
+        } catch (Exception e) {
+            warnings.accept("Error loading flight: " + flightJson.toString() + " - " + e.getMessage() + " ❌");
+            return null;
         }
     }
 
-    public void loadLocationsFromFile(String path) throws IOException {
-        String jsonStr = readFile(path); // Use the internal readFile method
-        JSONArray jsonArray = new JSONArray(jsonStr);
-        for(int i = 0; i < jsonArray.length(); i++) {
-            JSONObject locationJson = jsonArray.getJSONObject(i);
+    /**
+     * A validated flight whose references are already resolved. Building the
+     * Flight is kept separate because its constructor registers the flight on
+     * its plane, which must happen on one thread and in file order.
+     */
+    static final class FlightRecord {
+        private final String id;
+        private final Plane plane;
+        private final Location departureLocation;
+        private final Location scaleLocation;
+        private final Location arrivalLocation;
+        private final LocalDateTime departureDate;
+        private final int hoursDurationArrival;
+        private final int minutesDurationArrival;
+        private final int hoursDurationScale;
+        private final int minutesDurationScale;
 
-            try {
-                String airportId = locationJson.getString("airportId");
-                String airportName = locationJson.getString("airportName");
-                String airportCity = locationJson.getString("airportCity");
-                String airportCountry = locationJson.getString("airportCountry");
+        FlightRecord(String id, Plane plane, Location departureLocation, Location scaleLocation, Location arrivalLocation,
+                LocalDateTime departureDate, int hoursDurationArrival, int minutesDurationArrival, int hoursDurationScale, int minutesDurationScale) {
+            this.id = id;
+            this.plane = plane;
+            this.departureLocation = departureLocation;
+            this.scaleLocation = scaleLocation;
+            this.arrivalLocation = arrivalLocation;
+            this.departureDate = departureDate;
+            this.hoursDurationArrival = hoursDurationArrival;
+            this.minutesDurationArrival = minutesDurationArrival;
+            this.hoursDurationScale = hoursDurationScale;
+            this.minutesDurationScale = minutesDurationScale;
+        }
 
-                double airportLatitude = locationJson.getDouble("airportLatitude");
-                double airportLongitude = locationJson.getDouble("airportLongitude");
+        Flight toFlight() {
+            if (this.scaleLocation == null) {
+                return new Flight(
+                        id, plane, departureLocation, arrivalLocation,
+                        departureDate, hoursDurationArrival, minutesDurationArrival
+                );
+            }
+            return new Flight(
+                    id, plane, departureLocation, scaleLocation, arrivalLocation,
+                    departureDate, hoursDurationArrival, minutesDurationArrival,
+                    hoursDurationScale, minutesDurationScale
+            );
+        }
+    }
 
-                Location newLocation = new Location(airportId,airportName,airportCity,airportCountry,airportLatitude,airportLongitude);
-                this.locations.add(newLocation);
+    public void loadLocationsFromFile(String path) throws IOException {
+        ArrayList<Location> loaded = new ArrayList<>();
+        forEachElement(path, locationJson -> {
+            try {
+                loaded.add(parseLocation(locationJson));
             } catch (Exception e) {
                 System.err.println("Error loading location: " + locationJson.toString() + " - " + e.getMessage() + " ❌");
             }
-        }
+        });
+        this.locations.addAll(loaded);
     }
 
     public void loadPassengersFromFile(String path) throws IOException {
-        String jsonStr = readFile(path); // Use the internal readFile method
-        JSONArray jsonArray = new JSONArray(jsonStr);
-        for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject passengerJson = jsonArray.getJSONObject(i);
-
+        ArrayList<Passenger> loaded = new ArrayList<>();
+        forEachElement(path, passengerJson -> {
             try {
-                long id = passengerJson.getLong("id");
-                String firstname = passengerJson.getString("firstname");
-                String lastname = passengerJson.getString("lastname");
-                String birthDateString = passengerJson.getString("birthDate");
-                LocalDate birthDate = LocalDate.parse(birthDateString);
-                int countryPhoneCode = passengerJson.getInt("countryPhoneCode");
-                long phone = passengerJson.getLong("phone");
-                String country = passengerJson.getString("country");
-
-                Passenger newPassenger = new Passenger(id,firstname,lastname,birthDate,countryPhoneCode,phone,country);
-                this.passengers.add(newPassenger);
+                loaded.add(parsePassenger(passengerJson));
             } catch (Exception e) {
                 System.err.println("Error loading passenger: " + passengerJson.toString() + " - " + e.getMessage() + " ❌");
             }
-        }
+        });
+        this.passengers.addAll(loaded);
     }
 
     public void loadPlanesFromFile(String path) throws IOException {
-        String jsonStr = readFile(path); // Use the internal readFile method
-        JSONArray jsonArray = new JSONArray(jsonStr);
-        for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject planeJson = jsonArray.getJSONObject(i);
-
+        ArrayList<Plane> loaded = new ArrayList<>();
+        forEachElement(path, planeJson -> {
             try {
-                String id = planeJson.getString("id");
-                String brand = planeJson.getString("brand");
-                String model = planeJson.getString("model");
-                int maxCapacity = planeJson.getInt("maxCapacity");
-                String airline = planeJson.getString("airline");
-
-                Plane newPlane = new Plane(id,brand,model,maxCapacity,airline);
-                this.planes.add(newPlane);
+                loaded.add(parsePlane(planeJson));
             } catch (Exception e) {
                 System.err.println("Error loading plane: " + planeJson.toString() + " - " + e.getMessage() + " ❌");
             }
-        }
+        });
+        this.planes.addAll(loaded);
+    }
+
+    static Location parseLocation(JSONObject locationJson) {
+        String airportId = locationJson.getString("airportId");
+        String airportName = locationJson.getString("airportName");
+        StringDictionary dictionary = StringDictionary.getInstance();
+        String airportCity = dictionary.canonicalize(StringDictionary.Field.LOCATION_CITY, locationJson.getString("airportCity"));
+        String airportCountry = dictionary.canonicalize(StringDictionary.Field.LOCATION_COUNTRY, locationJson.getString("airportCountry"));
+
+        double airportLatitude = locationJson.getDouble("airportLatitude");
+        double airportLongitude = locationJson.getDouble("airportLongitude");
+
+        return new Location(airportId,airportName,airportCity,airportCountry,airportLatitude,airportLongitude);
+    }
+
+    static Passenger parsePassenger(JSONObject passengerJson) {
+        long id = passengerJson.getLong("id");
+        String firstname = passengerJson.getString("firstname");
+        String lastname = passengerJson.getString("lastname");
+        String birthDateString = passengerJson.getString("birthDate");
+        LocalDate birthDate = IsoDateParser.parseDate(birthDateString);
+        int countryPhoneCode = passengerJson.getInt("countryPhoneCode");
+        long phone = passengerJson.getLong("phone");
+        String country = StringDictionary.getInstance().canonicalize(StringDictionary.Field.PASSENGER_COUNTRY, passengerJson.getString("country"));
+
+        return new Passenger(id,firstname,lastname,birthDate,countryPhoneCode,phone,country);
+    }
+
+    static Plane parsePlane(JSONObject planeJson) {
+        String id = planeJson.getString("id");
+        StringDictionary dictionary = StringDictionary.getInstance();
+        String brand = dictionary.canonicalize(StringDictionary.Field.PLANE_BRAND, planeJson.getString("brand"));
+        String model = dictionary.canonicalize(StringDictionary.Field.PLANE_MODEL, planeJson.getString("model"));
+        int maxCapacity = planeJson.getInt("maxCapacity");
+        String airline = dictionary.canonicalize(StringDictionary.Field.PLANE_AIRLINE, planeJson.getString("airline"));
+
+        return new Plane(id,brand,model,maxCapacity,airline);
     }
 }
\ No newline at end of file
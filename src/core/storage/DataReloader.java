@@ -0,0 +1,384 @@
+package core.storage;
+
+import core.functions.WaitlistEngine;
+import core.model.Flight;
+import core.model.Location;
+import core.model.Passenger;
+import core.model.Plane;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * Watches the data files and applies edits to the storages while the
+ * application runs. Every record is remembered by a hash of its raw bytes,
+ * so a reload only parses the records whose bytes changed and each storage
+ * receives the inserts, changes and removals as one batch. Each batch is
+ * written to the log before it is applied.
+ */
+public class DataReloader {
+
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private enum Kind {
+        PLANES("id"), LOCATIONS("airportId"), PASSENGERS("id"), FLIGHTS("id");
+
+        private final String key;
+
+        Kind(String key) {
+            this.key = key;
+        }
+    }
+
+    private final FlightStorage flights;
+    private final PlaneStorage planes;
+    private final LocationStorage locations;
+    private final PassengerStorage passengers;
+    private final LinkedHashMap<Path, Kind> files;
+    private final HashMap<Path, HashMap<Long, String>> loaded;
+    private WatchService watcher;
+
+    public DataReloader(FlightStorage flights, PlaneStorage planes, LocationStorage locations, PassengerStorage passengers,
+            String planesPath, String passengersPath, String locationsPath, String flightsPath) {
+        this.flights = flights;
+        this.planes = planes;
+        this.locations = locations;
+        this.passengers = passengers;
+        // Reloads run in this order so that flights always see the latest planes and locations.
+        this.files = new LinkedHashMap<>();
+        this.files.put(normalize(Path.of(planesPath)), Kind.PLANES);
+        this.files.put(normalize(Path.of(locationsPath)), Kind.LOCATIONS);
+        this.files.put(normalize(Path.of(passengersPath)), Kind.PASSENGERS);
+        this.files.put(normalize(Path.of(flightsPath)), Kind.FLIGHTS);
+        this.loaded = new HashMap<>();
+    }
+
+    /**
+     * Records the current contents of the files as already loaded and starts
+     * watching their directories.
+     */
+    public synchronized void start() throws IOException {
+        for (Path path : this.files.keySet()) {
+            this.loaded.put(path, Files.exists(path) ? hashRecords(path) : new HashMap<>());
+        }
+        WatchService service = FileSystems.getDefault().newWatchService();
+        HashSet<Path> directories = new HashSet<>();
+        for (Path path : this.files.keySet()) {
+            if (directories.add(path.getParent())) {
+                path.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+        this.watcher = service;
+        Thread thread = new Thread(() -> watch(service), "data-reloader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() throws IOException {
+        if (this.watcher != null) {
+            this.watcher.close();
+            this.watcher = null;
+        }
+    }
+
+    /**
+     * Applies the differences between the file and what was last loaded from
+     * it. Returns the number of records inserted, changed or removed.
+     */
+    public synchronized int reload(Path file) throws IOException {
+        Path path = normalize(file);
+        Kind kind = this.files.get(path);
+        if (kind == null) {
+            throw new IllegalArgumentException("The file " + file + " is not watched.");
+        }
+        HashMap<Long, String> previous = this.loaded.getOrDefault(path, new HashMap<>());
+        HashMap<Long, String> current = new HashMap<>();
+        LinkedHashMap<String, JSONObject> pending = new LinkedHashMap<>();
+        HashMap<String, Long> pendingHashes = new HashMap<>();
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path));
+        try {
+            JsonArrayScanner.forEachElement(JsonArrayScanner.of(bytes), (start, end) -> {
+                long hash = hash(bytes, (int) start, (int) end);
+                String id = previous.get(hash);
+                if (id == null) {
+                    String text = StandardCharsets.UTF_8.decode(bytes.slice((int) start, (int) (end - start))).toString();
+                    JSONObject json = new JSONObject(new JSONTokener(text));
+                    id = String.valueOf(json.get(kind.key));
+                    pending.put(id, json);
+                    pendingHashes.put(id, hash);
+                }
+                current.put(hash, id);
+            });
+        } catch (JSONException e) {
+            // Most likely the file is still being written; the next event will retry.
+            throw new IOException("Could not read " + path + ": " + e.getMessage(), e);
+        }
+
+        HashSet<String> surviving = new HashSet<>(current.values());
+        LinkedHashSet<String> removed = new LinkedHashSet<>();
+        for (String id : previous.values()) {
+            if (!surviving.contains(id)) {
+                removed.add(id);
+            }
+        }
+        HashSet<String> skipped = new HashSet<>();
+        int applied = switch (kind) {
+            case PLANES -> reloadPlanes(pending, removed, skipped);
+            case LOCATIONS -> reloadLocations(pending, removed, skipped);
+            case PASSENGERS -> reloadPassengers(pending, removed, skipped);
+            case FLIGHTS -> reloadFlights(pending, removed, skipped);
+        };
+        // Skipped records keep the bytes that were last applied, so the next reload tries their new bytes again.
+        for (String id : skipped) {
+            Long hash = pendingHashes.get(id);
+            if (hash != null) {
+                current.remove(hash);
+            }
+        }
+        for (Map.Entry<Long, String> entry : previous.entrySet()) {
+            if (skipped.contains(entry.getValue())) {
+                current.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+        this.loaded.put(path, current);
+        return applied;
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                LinkedHashSet<Path> changed = new LinkedHashSet<>();
+                WatchKey key = service.take();
+                // Editors often save in several steps, so gather events until the directory settles.
+                while (key != null) {
+                    Path directory = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.context() instanceof Path name) {
+                            changed.add(normalize(directory.resolve(name)));
+                        }
+                    }
+                    key.reset();
+                    key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                for (Path path : this.files.keySet()) {
+                    if (changed.contains(path) && Files.exists(path)) {
+                        try {
+                            reload(path);
+                        } catch (IOException | RuntimeException e) {
+                            System.err.println("Warning: could not reload " + path + " - " + e.getMessage() + " ⚠️");
+                        }
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Stopped.
+        }
+    }
+
+    private int reloadPlanes(Map<String, JSONObject> pending, Collection<String> removed, Set<String> skipped) throws IOException {
+        ArrayList<Plane> upserts = new ArrayList<>();
+        ArrayList<Plane> grown = new ArrayList<>();
+        for (Map.Entry<String, JSONObject> entry : pending.entrySet()) {
+            try {
+                Plane plane = DataProcessor.parsePlane(entry.getValue());
+                Plane previous = this.planes.get(plane.getId());
+                if (previous != null && plane.getMaxCapacity() > previous.getMaxCapacity()) {
+                    grown.add(plane);
+                }
+                upserts.add(plane);
+            } catch (Exception e) {
+                System.err.println("Error reloading plane: " + entry.getValue().toString() + " - " + e.getMessage() + " ❌");
+                skipped.add(entry.getKey());
+            }
+        }
+        ArrayList<String> removedIds = new ArrayList<>();
+        for (String id : removed) {
+            if (this.flights.countByPlane(id) > 0) {
+                System.err.println("Warning: Plane " + id + " still has flights and was not removed ✈️");
+                skipped.add(id);
+            } else {
+                removedIds.add(id);
+            }
+        }
+        if (upserts.isEmpty() && removedIds.isEmpty()) {
+            return 0;
+        }
+        int applied = logAndApply(log -> log.logReloadPlanes(upserts, removedIds), () -> applyPlanes(this.planes, this.flights, upserts, removedIds));
+        for (Plane plane : grown) {
+            promote(this.flights.findByPlane(plane.getId()));
+        }
+        return applied;
+    }
+
+    private int reloadLocations(Map<String, JSONObject> pending, Collection<String> removed, Set<String> skipped) throws IOException {
+        ArrayList<Location> upserts = new ArrayList<>();
+        for (Map.Entry<String, JSONObject> entry : pending.entrySet()) {
+            try {
+                upserts.add(DataProcessor.parseLocation(entry.getValue()));
+            } catch (Exception e) {
+                System.err.println("Error reloading location: " + entry.getValue().toString() + " - " + e.getMessage() + " ❌");
+                skipped.add(entry.getKey());
+            }
+        }
+        ArrayList<String> removedIds = new ArrayList<>();
+        for (String id : removed) {
+            if (!this.flights.findByDepartureLocation(id).isEmpty() || !this.flights.findByScaleLocation(id).isEmpty()
+                    || !this.flights.findByArrivalLocation(id).isEmpty()) {
+                System.err.println("Warning: Location " + id + " is still used by flights and was not removed 📍");
+                skipped.add(id);
+            } else {
+                removedIds.add(id);
+            }
+        }
+        if (upserts.isEmpty() && removedIds.isEmpty()) {
+            return 0;
+        }
+        return logAndApply(log -> log.logReloadLocations(upserts, removedIds), () -> applyLocations(this.locations, this.flights, upserts, removedIds));
+    }
+
+    private int reloadPassengers(Map<String, JSONObject> pending, Collection<String> removed, Set<String> skipped) throws IOException {
+        ArrayList<Passenger> upserts = new ArrayList<>();
+        for (Map.Entry<String, JSONObject> entry : pending.entrySet()) {
+            try {
+                upserts.add(DataProcessor.parsePassenger(entry.getValue()));
+            } catch (Exception e) {
+                System.err.println("Error reloading passenger: " + entry.getValue().toString() + " - " + e.getMessage() + " ❌");
+                skipped.add(entry.getKey());
+            }
+        }
+        if (upserts.isEmpty() && removed.isEmpty()) {
+            return 0;
+        }
+        return logAndApply(log -> log.logReloadPassengers(upserts, removed), () -> this.passengers.applyChanges(upserts, removed));
+    }
+
+    private int reloadFlights(Map<String, JSONObject> pending, Collection<String> removed, Set<String> skipped) throws IOException {
+        ArrayList<Flight> upserts = new ArrayList<>();
+        ArrayList<String> grown = new ArrayList<>();
+        for (Map.Entry<String, JSONObject> entry : pending.entrySet()) {
+            DataProcessor.FlightRecord record = DataProcessor.parseFlight(entry.getValue(), this.planes::get, this.locations::get, System.err::println);
+            if (record == null) {
+                skipped.add(entry.getKey());
+                continue;
+            }
+            Flight flight = record.toFlight();
+            Flight previous = this.flights.get(flight.getId());
+            if (previous != null && flight.getPlane().getMaxCapacity() > previous.getPlane().getMaxCapacity()) {
+                grown.add(flight.getId());
+            }
+            upserts.add(flight);
+        }
+        if (upserts.isEmpty() && removed.isEmpty()) {
+            return 0;
+        }
+        int applied = logAndApply(log -> log.logReloadFlights(upserts, removed), () -> this.flights.applyChanges(upserts, removed));
+        ArrayList<Flight> stored = new ArrayList<>();
+        for (String id : grown) {
+            Flight flight = this.flights.get(id);
+            if (flight != null) {
+                stored.add(flight);
+            }
+        }
+        promote(stored);
+        return applied;
+    }
+
+    /**
+     * A plane or location that was replaced is swapped into the flights that
+     * use it as copies, so published flights are never changed. Recovery
+     * replays a logged reload through the same steps.
+     */
+    static int applyPlanes(PlaneStorage planes, FlightStorage flights, Collection<Plane> upserts, Collection<String> removedIds) {
+        int applied = planes.applyChanges(upserts, removedIds);
+        for (Plane plane : upserts) {
+            flights.replacePlane(plane);
+        }
+        return applied;
+    }
+
+    static int applyLocations(LocationStorage locations, FlightStorage flights, Collection<Location> upserts, Collection<String> removedIds) {
+        int applied = locations.applyChanges(upserts, removedIds);
+        for (Location location : upserts) {
+            flights.replaceLocation(location);
+        }
+        return applied;
+    }
+
+    // Logged before it is applied, like a controller change, so recovery replays the reload on the base it was made on.
+    private static int logAndApply(LogStep logStep, IntSupplier apply) throws IOException {
+        WriteAheadLog log = WriteAheadLog.getInstance();
+        log.beginChange();
+        try {
+            long lsn = logStep.log(log);
+            try {
+                return apply.getAsInt();
+            } catch (RuntimeException e) {
+                log.abort(lsn);
+                throw e;
+            }
+        } finally {
+            log.endChange();
+        }
+    }
+
+    // Flights that gained seats offer them to their waitlists.
+    private static void promote(Collection<Flight> flights) {
+        for (Flight flight : flights) {
+            WaitlistEngine.getInstance().promote(flight);
+        }
+    }
+
+    private HashMap<Long, String> hashRecords(Path path) throws IOException {
+        Kind kind = this.files.get(path);
+        HashMap<Long, String> hashes = new HashMap<>();
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path));
+        try {
+            JsonArrayScanner.forEachElement(JsonArrayScanner.of(bytes), (start, end) -> {
+                String text = StandardCharsets.UTF_8.decode(bytes.slice((int) start, (int) (end - start))).toString();
+                hashes.put(hash(bytes, (int) start, (int) end), String.valueOf(new JSONObject(new JSONTokener(text)).get(kind.key)));
+            });
+        } catch (JSONException e) {
+            throw new IOException("Could not read " + path + ": " + e.getMessage(), e);
+        }
+        return hashes;
+    }
+
+    // 64-bit FNV-1a over the raw record bytes.
+    private static long hash(ByteBuffer bytes, int start, int end) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= bytes.get(i) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private interface LogStep {
+        long log(WriteAheadLog log) throws IOException;
+    }
+}
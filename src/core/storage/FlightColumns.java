@@ -0,0 +1,169 @@
+package core.storage;
+
+import core.model.Flight;
+import core.model.Location;
+import core.model.Plane;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Off-heap flight attributes for FlightStorage's columnar mode. Rows are
+ * kept in blocks, and every column of a block is its own direct buffer:
+ * int codes for the plane and the three locations, the departure time in
+ * epoch seconds and the four durations, 40 bytes per flight. Planes and
+ * locations are coded through a small on-heap dictionary.
+ *
+ * Rows are written once. A reschedule or plane change appends a row, so a
+ * view in a snapshot that was already handed out keeps reading the values
+ * it was published with. The storage tells the columns which rows it still
+ * holds. A block none of whose rows is held is left to the garbage
+ * collector along with its last views, and once most held rows are dead
+ * the storage moves its flights to fresh columns.
+ */
+final class FlightColumns {
+
+    private static final int BLOCK_ROWS = 1 << 14;
+    private static final int SPARSE_MINIMUM_ROWS = 4 * BLOCK_ROWS;
+    private static final int NO_LOCATION = -1;
+
+    private final IdentityHashMap<Object, Integer> codes;
+    // Read by views without the lock, so it is replaced rather than grown in place.
+    private volatile Object[] references;
+    private int referenceCount;
+    private Block current;
+    private long heldRows;
+    private long liveRows;
+
+    FlightColumns() {
+        this.codes = new IdentityHashMap<>();
+        this.references = new Object[16];
+        this.current = new Block(this);
+    }
+
+    // Returns the flight itself if it is already a row of these columns, and a view of a new row otherwise.
+    synchronized FlightView adopt(Flight flight) {
+        FlightView view = flight instanceof FlightView ? (FlightView) flight : null;
+        if (view == null || view.getBlock().columns != this) {
+            view = append(flight.getId(), flight.getPlane(), flight.getDepartureLocation(), flight.getScaleLocation(), flight.getArrivalLocation(),
+                    flight.getDepartureDate(), flight.getHoursDurationArrival(), flight.getMinutesDurationArrival(), flight.getHoursDurationScale(), flight.getMinutesDurationScale());
+        }
+        retain(view.getBlock());
+        return view;
+    }
+
+    synchronized FlightView append(String id, Plane plane, Location departure, Location scale, Location arrival, LocalDateTime departureDate,
+            int hoursArrival, int minutesArrival, int hoursScale, int minutesScale) {
+        if (this.current.used == BLOCK_ROWS) {
+            if (this.current.live == 0) {
+                this.heldRows -= BLOCK_ROWS;
+            }
+            this.current = new Block(this);
+        }
+        Block block = this.current;
+        int row = block.used;
+        block.planes.putInt(row << 2, code(plane));
+        block.departures.putInt(row << 2, code(departure));
+        block.scales.putInt(row << 2, scale == null ? NO_LOCATION : code(scale));
+        block.arrivals.putInt(row << 2, code(arrival));
+        block.departureSeconds.putLong(row << 3, departureDate.toEpochSecond(ZoneOffset.UTC));
+        int durations = row << 4;
+        block.durations.putInt(durations, hoursArrival);
+        block.durations.putInt(durations + 4, minutesArrival);
+        block.durations.putInt(durations + 8, hoursScale);
+        block.durations.putInt(durations + 12, minutesScale);
+        block.used++;
+        this.heldRows++;
+        return new FlightView(id, block, row);
+    }
+
+    synchronized void release(Block block) {
+        block.live--;
+        this.liveRows--;
+        if (block.live == 0 && block != this.current) {
+            this.heldRows -= block.used;
+        }
+    }
+
+    // Once most of the rows still held are dead, copying the live ones into fresh columns frees the rest.
+    synchronized boolean isSparse() {
+        return this.heldRows >= SPARSE_MINIMUM_ROWS && this.liveRows * 2 < this.heldRows;
+    }
+
+    private void retain(Block block) {
+        if (block.live == 0 && block != this.current) {
+            this.heldRows += block.used;
+        }
+        block.live++;
+        this.liveRows++;
+    }
+
+    private int code(Object reference) {
+        Integer code = this.codes.get(reference);
+        if (code == null) {
+            code = this.referenceCount;
+            Object[] grown = this.references;
+            if (code == grown.length) {
+                grown = Arrays.copyOf(grown, grown.length * 2);
+            }
+            grown[code] = reference;
+            this.references = grown;
+            this.referenceCount++;
+            this.codes.put(reference, code);
+        }
+        return code;
+    }
+
+    private Object reference(int code) {
+        return code == NO_LOCATION ? null : this.references[code];
+    }
+
+    static final class Block {
+        final FlightColumns columns;
+        private final ByteBuffer planes;
+        private final ByteBuffer departures;
+        private final ByteBuffer scales;
+        private final ByteBuffer arrivals;
+        private final ByteBuffer departureSeconds;
+        private final ByteBuffer durations;
+        private int used;
+        private int live;
+
+        private Block(FlightColumns columns) {
+            this.columns = columns;
+            this.planes = ByteBuffer.allocateDirect(BLOCK_ROWS * 4);
+            this.departures = ByteBuffer.allocateDirect(BLOCK_ROWS * 4);
+            this.scales = ByteBuffer.allocateDirect(BLOCK_ROWS * 4);
+            this.arrivals = ByteBuffer.allocateDirect(BLOCK_ROWS * 4);
+            this.departureSeconds = ByteBuffer.allocateDirect(BLOCK_ROWS * 8);
+            this.durations = ByteBuffer.allocateDirect(BLOCK_ROWS * 16);
+        }
+
+        Plane plane(int row) {
+            return (Plane) this.columns.reference(this.planes.getInt(row << 2));
+        }
+
+        Location departure(int row) {
+            return (Location) this.columns.reference(this.departures.getInt(row << 2));
+        }
+
+        Location scale(int row) {
+            return (Location) this.columns.reference(this.scales.getInt(row << 2));
+        }
+
+        Location arrival(int row) {
+            return (Location) this.columns.reference(this.arrivals.getInt(row << 2));
+        }
+
+        LocalDateTime departureDate(int row) {
+            return LocalDateTime.ofEpochSecond(this.departureSeconds.getLong(row << 3), 0, ZoneOffset.UTC);
+        }
+
+        // Durations are stored as arrival hours, arrival minutes, scale hours and scale minutes.
+        int duration(int row, int part) {
+            return this.durations.getInt((row << 4) + (part << 2));
+        }
+    }
+}
@@ -1,56 +1,574 @@
 package core.storage;
 
 import core.model.Flight;
+import core.model.Location;
+import core.model.Plane;
+import core.design.observer.ChangeEvent;
 import core.design.observer.Observable;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class FlightStorage extends Observable implements Storage<Flight> {
 
-    private static FlightStorage instance;
-    private ArrayList<Flight> flights;
+    private static final FlightStorage instance = new FlightStorage();
+    private static final Comparator<Flight> BY_DEPARTURE_DATE = Comparator.comparing(Flight::getDepartureDate);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private LinkedHashMap<String, Flight> flights;
+    private HashMap<String, ArrayList<Flight>> byDepartureLocation;
+    private HashMap<String, ArrayList<Flight>> byArrivalLocation;
+    private HashMap<String, ArrayList<Flight>> byScaleLocation;
+    private HashMap<String, ArrayList<Flight>> byPlane;
+    private HashMap<String, TreeMap<LocalDateTime, ArrayList<Flight>>> byRoute;
+    private volatile StorageSnapshot<Flight> snapshot;
+    // Null while flights are kept on the heap.
+    private FlightColumns columns;
 
     private FlightStorage() {
-        this.flights = new ArrayList<>();
+        this.flights = new LinkedHashMap<>();
+        this.byDepartureLocation = new HashMap<>();
+        this.byArrivalLocation = new HashMap<>();
+        this.byScaleLocation = new HashMap<>();
+        this.byPlane = new HashMap<>();
+        this.byRoute = new HashMap<>();
+        this.snapshot = StorageSnapshot.empty();
     }
 
     public static FlightStorage getInstance() {
-        if (instance == null) {
-            instance = new FlightStorage();
-        }
         return instance;
     }
 
     @Override
     public boolean add(Flight item) {
-        boolean exists = flights.stream().anyMatch(f -> f.getId().equals(item.getId()));
-        if (exists) {
-            return false;
+        Flight stored;
+        this.lock.writeLock().lock();
+        try {
+            if (this.flights.containsKey(item.getId())) {
+                return false;
+            }
+            stored = store(item);
+            this.flights.put(stored.getId(), stored);
+            index(stored);
+            BookingStore.getInstance().replace(stored);
+            this.snapshot = this.snapshot.withAll(List.of(stored), BY_DEPARTURE_DATE);
+        } finally {
+            this.lock.writeLock().unlock();
         }
-        this.flights.add(item);
-        notifyAll(1);
+        notifyAll(new ChangeEvent<Flight>(1).added(stored.getId(), stored));
         return true;
     }
     
+    @Override
+    public int addAll(Collection<Flight> items) {
+        ArrayList<Flight> added = new ArrayList<>();
+        this.lock.writeLock().lock();
+        try {
+            for (Flight item : items) {
+                if (!this.flights.containsKey(item.getId())) {
+                    Flight stored = store(item);
+                    this.flights.put(stored.getId(), stored);
+                    index(stored);
+                    BookingStore.getInstance().replace(stored);
+                    added.add(stored);
+                }
+            }
+            this.snapshot = this.snapshot.withAll(added, BY_DEPARTURE_DATE);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        if (!added.isEmpty()) {
+            ChangeEvent<Flight> event = new ChangeEvent<>(1);
+            for (Flight item : added) {
+                event.added(item.getId(), item);
+            }
+            notifyAll(event);
+        }
+        return added.size();
+    }
+
     public boolean update(Flight item) {
-        for (int i = 0; i < this.flights.size(); i++) {
-            if (this.flights.get(i).getId().equals(item.getId())) {
-                this.flights.set(i, item);
-                notifyAll(2);
-                return true;
+        ChangeEvent<Flight> event = new ChangeEvent<>(2);
+        this.lock.writeLock().lock();
+        try {
+            Flight previous = this.flights.get(item.getId());
+            if (previous == null) {
+                return false;
             }
+            Flight stored = store(item);
+            if (previous != stored) {
+                unindex(previous);
+                this.flights.put(stored.getId(), stored);
+                index(stored);
+                BookingStore.getInstance().replace(stored);
+            }
+            int position = positionOf(this.snapshot, previous);
+            if (previous.getDepartureDate().equals(stored.getDepartureDate())) {
+                this.snapshot = this.snapshot.withSet(position, stored);
+            } else {
+                this.snapshot = this.snapshot.withRemove(position).withAll(List.of(stored), BY_DEPARTURE_DATE);
+            }
+            release(previous);
+            event.updated(stored.getId(), previous, stored);
+            compactIfSparse(event);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        notifyAll(event);
+        return true;
+    }
+
+    /**
+     * Moves the flights between the heap and off-heap columns. In columnar
+     * mode every stored flight is a FlightView over a row of direct buffers,
+     * which keeps multi-million-flight schedules out of the garbage
+     * collector's way. The flights are swapped for copies in one change, as
+     * replacePlane does. Returns the number of flights moved.
+     */
+    public int setColumnar(boolean columnar) {
+        ChangeEvent<Flight> event = new ChangeEvent<>(2);
+        int changed;
+        this.lock.writeLock().lock();
+        try {
+            if (columnar == (this.columns != null)) {
+                return 0;
+            }
+            this.columns = columnar ? new FlightColumns() : null;
+            changed = applyLocked(new ArrayList<>(this.flights.values()), List.of(), event);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        if (event.hasChanges()) {
+            notifyAll(event);
+        }
+        return changed;
+    }
+
+    public boolean isColumnar() {
+        this.lock.readLock().lock();
+        try {
+            return this.columns != null;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces the upserts and removes the given ids as a single
+     * change with one notification. Upserts must have distinct ids.
+     */
+    @Override
+    public int applyChanges(Collection<Flight> upserts, Collection<String> removedIds) {
+        ChangeEvent<Flight> event = new ChangeEvent<>(2);
+        int changed;
+        this.lock.writeLock().lock();
+        try {
+            changed = applyLocked(upserts, removedIds, event);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        if (event.hasChanges()) {
+            notifyAll(event);
+        }
+        return changed;
+    }
+
+    /**
+     * Points the flights that use a plane or location with the same id at the
+     * given object, after a reload replaced it. The flights are swapped for
+     * copies in one change, as applyChanges does, so snapshots already handed
+     * out keep the objects they had. Returns the number of flights replaced.
+     */
+    public int replacePlane(Plane plane) {
+        ChangeEvent<Flight> event = new ChangeEvent<>(2);
+        int changed;
+        this.lock.writeLock().lock();
+        try {
+            ArrayList<Flight> copies = new ArrayList<>();
+            for (Flight flight : this.byPlane.getOrDefault(plane.getId(), new ArrayList<>())) {
+                if (flight.getPlane() != plane) {
+                    copies.add(flight.withPlane(plane));
+                }
+            }
+            changed = applyLocked(copies, List.of(), event);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        if (event.hasChanges()) {
+            notifyAll(event);
+        }
+        return changed;
+    }
+
+    public int replaceLocation(Location location) {
+        String id = location.getAirportId();
+        ChangeEvent<Flight> event = new ChangeEvent<>(2);
+        int changed;
+        this.lock.writeLock().lock();
+        try {
+            LinkedHashMap<String, Flight> using = new LinkedHashMap<>();
+            for (HashMap<String, ArrayList<Flight>> index : List.of(this.byDepartureLocation, this.byScaleLocation, this.byArrivalLocation)) {
+                for (Flight flight : index.getOrDefault(id, new ArrayList<>())) {
+                    using.put(flight.getId(), flight);
+                }
+            }
+            ArrayList<Flight> copies = new ArrayList<>();
+            for (Flight flight : using.values()) {
+                Location departure = pick(flight.getDepartureLocation(), location);
+                Location scale = flight.getScaleLocation() == null ? null : pick(flight.getScaleLocation(), location);
+                Location arrival = pick(flight.getArrivalLocation(), location);
+                if (departure != flight.getDepartureLocation() || scale != flight.getScaleLocation() || arrival != flight.getArrivalLocation()) {
+                    copies.add(flight.withLocations(departure, scale, arrival));
+                }
+            }
+            changed = applyLocked(copies, List.of(), event);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        if (event.hasChanges()) {
+            notifyAll(event);
+        }
+        return changed;
+    }
+
+    // Callers hold the write lock and notify with the event once they release it. Returns the number of flights changed.
+    private int applyLocked(Collection<Flight> upserts, Collection<String> removedIds, ChangeEvent<Flight> event) {
+        int before = event.getChanges().size();
+        StorageSnapshot<Flight> next = this.snapshot;
+        for (String id : removedIds) {
+            Flight previous = this.flights.remove(id);
+            if (previous != null) {
+                unindex(previous);
+                next = next.withRemove(positionOf(next, previous));
+                BookingStore.getInstance().removeFlight(id);
+                release(previous);
+                event.removed(id, previous);
+            }
+        }
+        ArrayList<Flight> stored = new ArrayList<>(upserts.size());
+        for (Flight item : upserts) {
+            Flight copy = store(item);
+            Flight previous = this.flights.put(copy.getId(), copy);
+            if (previous != null) {
+                unindex(previous);
+                next = next.withRemove(positionOf(next, previous));
+                release(previous);
+                event.updated(copy.getId(), previous, copy);
+            } else {
+                event.added(copy.getId(), copy);
+            }
+            index(copy);
+            BookingStore.getInstance().replace(copy);
+            stored.add(copy);
+        }
+        this.snapshot = next.withAll(stored, BY_DEPARTURE_DATE);
+        int changed = event.getChanges().size() - before;
+        compactIfSparse(event);
+        return changed;
+    }
+
+    // Reschedules leave dead rows behind; once they outnumber the live ones the flights move to fresh columns.
+    private void compactIfSparse(ChangeEvent<Flight> event) {
+        if (this.columns != null && this.columns.isSparse()) {
+            this.columns = new FlightColumns();
+            applyLocked(new ArrayList<>(this.flights.values()), List.of(), event);
+        }
+    }
+
+    // Callers hold the write lock. Returns the object to keep: a row of the columns, or a heap flight.
+    private Flight store(Flight item) {
+        if (this.columns != null) {
+            return this.columns.adopt(item);
+        }
+        return item instanceof FlightView ? ((FlightView) item).toFlight() : item;
+    }
+
+    private static void release(Flight flight) {
+        if (flight instanceof FlightView) {
+            ((FlightView) flight).release();
         }
-        return false;
     }
 
     @Override
     public Flight get(String id) {  
-        return flights.stream()
-                      .filter(flight -> flight.getId().equals(id))
-                      .findFirst()
-                      .orElse(null);
+        this.lock.readLock().lock();
+        try {
+            return this.flights.get(id);
+        } finally {
+            this.lock.readLock().unlock();
+        }
     }
 
     public ArrayList<Flight> getAll() {
-        return new ArrayList<>(this.flights); 
+        this.lock.readLock().lock();
+        try {
+            return new ArrayList<>(this.flights.values());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public StorageSnapshot<Flight> getSnapshot() {
+        return this.snapshot;
+    }
+
+    public long getVersion() {
+        return this.snapshot.getVersion();
+    }
+
+    @Override
+    public Page<Flight> getPage(int offset, int limit) {
+        return Page.of(this.snapshot, offset, limit, FlightStorage::tokenOf);
+    }
+
+    // The token carries the departure date so that paging resumes in the right place even if the flight moved.
+    @Override
+    public Page<Flight> getPageAfter(String token, int limit) {
+        StorageSnapshot<Flight> current = this.snapshot;
+        if (token == null) {
+            return Page.of(current, 0, limit, FlightStorage::tokenOf);
+        }
+        int separator = token.indexOf('|');
+        if (separator < 0) {
+            throw new IllegalArgumentException("The page token is not valid.");
+        }
+        LocalDateTime lastDate;
+        try {
+            lastDate = LocalDateTime.parse(token.substring(0, separator));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("The page token is not valid.");
+        }
+        String lastId = token.substring(separator + 1);
+        int start = current.indexOfFirst(flight -> !flight.getDepartureDate().isBefore(lastDate));
+        int end = current.indexOfFirst(flight -> flight.getDepartureDate().isAfter(lastDate));
+        for (int i = start; i < end; i++) {
+            if (current.get(i).getId().equals(lastId)) {
+                return Page.of(current, i + 1, limit, FlightStorage::tokenOf);
+            }
+        }
+        return Page.of(current, end, limit, FlightStorage::tokenOf);
+    }
+
+    /**
+     * Snapshots are shared with readers, so a delay or plane change publishes
+     * a copy of the flight instead of changing the stored one. Both return
+     * the copy, or null without changing anything when the given object is
+     * no longer the stored flight.
+     */
+    public Flight reschedule(Flight flight, LocalDateTime departureDate) {
+        return replace(flight, flight.withDepartureDate(departureDate));
+    }
+
+    public Flight changePlane(Flight flight, Plane plane) {
+        return replace(flight, flight.withPlane(plane));
+    }
+
+    // Bookings change the relation, not the flight, so the snapshot is kept and only observers are told.
+    public int refresh(Collection<String> ids) {
+        ChangeEvent<Flight> event = new ChangeEvent<>(2);
+        this.lock.readLock().lock();
+        try {
+            for (String id : ids) {
+                Flight current = this.flights.get(id);
+                if (current != null) {
+                    event.updated(id, current, current);
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        if (event.hasChanges()) {
+            notifyAll(event);
+        }
+        return event.getChanges().size();
+    }
+
+    private Flight replace(Flight flight, Flight copy) {
+        ChangeEvent<Flight> event = new ChangeEvent<>(2);
+        Flight stored;
+        this.lock.writeLock().lock();
+        try {
+            if (this.flights.get(flight.getId()) != flight) {
+                return null;
+            }
+            StorageSnapshot<Flight> next = this.snapshot.withRemove(positionOf(this.snapshot, flight));
+            stored = store(copy);
+            unindex(flight);
+            this.flights.put(stored.getId(), stored);
+            index(stored);
+            BookingStore.getInstance().replace(stored);
+            this.snapshot = next.withAll(List.of(stored), BY_DEPARTURE_DATE);
+            release(flight);
+            event.updated(stored.getId(), flight, stored);
+            compactIfSparse(event);
+            // A compaction may have moved the copy to fresh columns, so the caller gets what is stored now.
+            stored = this.flights.get(stored.getId());
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        notifyAll(event);
+        return stored;
+    }
+
+    public ArrayList<Flight> findByDepartureLocation(String locationId) {
+        return find(this.byDepartureLocation, locationId);
+    }
+
+    public ArrayList<Flight> findByArrivalLocation(String locationId) {
+        return find(this.byArrivalLocation, locationId);
+    }
+
+    public ArrayList<Flight> findByScaleLocation(String locationId) {
+        return find(this.byScaleLocation, locationId);
+    }
+
+    public ArrayList<Flight> findByPlane(String planeId) {
+        return find(this.byPlane, planeId);
+    }
+
+    public int countByPlane(String planeId) {
+        this.lock.readLock().lock();
+        try {
+            ArrayList<Flight> bucket = this.byPlane.get(planeId);
+            return bucket == null ? 0 : bucket.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    // from is inclusive and to is exclusive; either bound may be null to leave that side open.
+    public ArrayList<Flight> findDepartingBetween(LocalDateTime from, LocalDateTime to) {
+        StorageSnapshot<Flight> current = this.snapshot;
+        int start = from == null ? 0 : current.indexOfFirst(flight -> !flight.getDepartureDate().isBefore(from));
+        int end = to == null ? current.size() : current.indexOfFirst(flight -> !flight.getDepartureDate().isBefore(to));
+        return start < end ? new ArrayList<>(current.subList(start, end)) : new ArrayList<>();
+    }
+
+    public ArrayList<Flight> findByRoute(String departureLocationId, String arrivalLocationId, LocalDateTime from, LocalDateTime to) {
+        this.lock.readLock().lock();
+        try {
+            TreeMap<LocalDateTime, ArrayList<Flight>> route = this.byRoute.get(routeKey(departureLocationId, arrivalLocationId));
+            if (route == null) {
+                return new ArrayList<>();
+            }
+            return collect(range(route, from, to).values());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private ArrayList<Flight> find(HashMap<String, ArrayList<Flight>> index, String key) {
+        this.lock.readLock().lock();
+        try {
+            ArrayList<Flight> bucket = index.get(key);
+            return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void index(Flight flight) {
+        this.byDepartureLocation.computeIfAbsent(flight.getDepartureLocation().getAirportId(), k -> new ArrayList<>()).add(flight);
+        this.byArrivalLocation.computeIfAbsent(flight.getArrivalLocation().getAirportId(), k -> new ArrayList<>()).add(flight);
+        if (flight.getScaleLocation() != null) {
+            this.byScaleLocation.computeIfAbsent(flight.getScaleLocation().getAirportId(), k -> new ArrayList<>()).add(flight);
+        }
+        this.byPlane.computeIfAbsent(flight.getPlane().getId(), k -> new ArrayList<>()).add(flight);
+        indexRoute(flight);
+    }
+
+    private void unindex(Flight flight) {
+        removeFrom(this.byDepartureLocation, flight.getDepartureLocation().getAirportId(), flight);
+        removeFrom(this.byArrivalLocation, flight.getArrivalLocation().getAirportId(), flight);
+        if (flight.getScaleLocation() != null) {
+            removeFrom(this.byScaleLocation, flight.getScaleLocation().getAirportId(), flight);
+        }
+        removeFrom(this.byPlane, flight.getPlane().getId(), flight);
+        unindexRoute(flight);
+    }
+
+    private void indexRoute(Flight flight) {
+        this.byRoute.computeIfAbsent(routeKey(flight), k -> new TreeMap<>())
+                .computeIfAbsent(flight.getDepartureDate(), k -> new ArrayList<>()).add(flight);
+    }
+
+    private void unindexRoute(Flight flight) {
+        TreeMap<LocalDateTime, ArrayList<Flight>> route = this.byRoute.get(routeKey(flight));
+        if (route != null) {
+            removeFrom(route, flight.getDepartureDate(), flight);
+            if (route.isEmpty()) {
+                this.byRoute.remove(routeKey(flight));
+            }
+        }
+    }
+
+    private static Location pick(Location current, Location replacement) {
+        return current.getAirportId().equals(replacement.getAirportId()) ? replacement : current;
+    }
+
+    private static String tokenOf(Flight flight) {
+        return flight.getDepartureDate() + "|" + flight.getId();
+    }
+
+    // Only flights departing at the same time are scanned; callers hold the write lock and know the flight is stored.
+    private static int positionOf(StorageSnapshot<Flight> snapshot, Flight flight) {
+        LocalDateTime departureDate = flight.getDepartureDate();
+        int position = snapshot.indexOfFirst(other -> !other.getDepartureDate().isBefore(departureDate));
+        for (; position < snapshot.size() && snapshot.get(position).getDepartureDate().equals(departureDate); position++) {
+            if (snapshot.get(position) == flight) {
+                return position;
+            }
+        }
+        throw new IllegalStateException("The flight " + flight.getId() + " is missing from the snapshot.");
+    }
+
+    private static <K> void removeFrom(Map<K, ArrayList<Flight>> index, K key, Flight flight) {
+        ArrayList<Flight> bucket = index.get(key);
+        if (bucket == null) {
+            return;
+        }
+        bucket.remove(flight);
+        if (bucket.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static Map<LocalDateTime, ArrayList<Flight>> range(TreeMap<LocalDateTime, ArrayList<Flight>> index, LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return index;
+        }
+        if (from == null) {
+            return index.headMap(to, false);
+        }
+        if (to == null) {
+            return index.tailMap(from, true);
+        }
+        if (!from.isBefore(to)) {
+            return Map.of();
+        }
+        return index.subMap(from, true, to, false);
+    }
+
+    private static ArrayList<Flight> collect(Collection<ArrayList<Flight>> buckets) {
+        ArrayList<Flight> result = new ArrayList<>();
+        for (List<Flight> bucket : buckets) {
+            result.addAll(bucket);
+        }
+        return result;
+    }
+
+    private static String routeKey(Flight flight) {
+        return routeKey(flight.getDepartureLocation().getAirportId(), flight.getArrivalLocation().getAirportId());
+    }
+
+    private static String routeKey(String departureLocationId, String arrivalLocationId) {
+        return departureLocationId + "->" + arrivalLocationId;
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package core.storage;
+
+import core.model.Flight;
+import core.model.Location;
+import core.model.Plane;
+import java.time.LocalDateTime;
+
+/**
+ * Flyweight over one row of FlightColumns. It is a Flight, so the rest of
+ * the application uses it unchanged, but it holds only its id and row and
+ * reads every attribute from the columns. The row never changes; the
+ * copies for a reschedule or plane change are new rows.
+ */
+public final class FlightView extends Flight {
+
+    private final FlightColumns.Block block;
+    private final int row;
+
+    FlightView(String id, FlightColumns.Block block, int row) {
+        super(id);
+        this.block = block;
+        this.row = row;
+    }
+
+    FlightColumns.Block getBlock() {
+        return block;
+    }
+
+    void release() {
+        block.columns.release(block);
+    }
+
+    @Override
+    public Plane getPlane() {
+        return block.plane(row);
+    }
+
+    @Override
+    public Location getDepartureLocation() {
+        return block.departure(row);
+    }
+
+    @Override
+    public Location getScaleLocation() {
+        return block.scale(row);
+    }
+
+    @Override
+    public Location getArrivalLocation() {
+        return block.arrival(row);
+    }
+
+    @Override
+    public LocalDateTime getDepartureDate() {
+        return block.departureDate(row);
+    }
+
+    @Override
+    public int getHoursDurationArrival() {
+        return block.duration(row, 0);
+    }
+
+    @Override
+    public int getMinutesDurationArrival() {
+        return block.duration(row, 1);
+    }
+
+    @Override
+    public int getHoursDurationScale() {
+        return block.duration(row, 2);
+    }
+
+    @Override
+    public int getMinutesDurationScale() {
+        return block.duration(row, 3);
+    }
+
+    @Override
+    public Flight withDepartureDate(LocalDateTime departureDate) {
+        return copy(getPlane(), getDepartureLocation(), getScaleLocation(), getArrivalLocation(), departureDate);
+    }
+
+    @Override
+    public Flight withPlane(Plane plane) {
+        return copy(plane, getDepartureLocation(), getScaleLocation(), getArrivalLocation(), getDepartureDate());
+    }
+
+    @Override
+    public Flight withLocations(Location departureLocation, Location scaleLocation, Location arrivalLocation) {
+        return copy(getPlane(), departureLocation, scaleLocation, arrivalLocation, getDepartureDate());
+    }
+
+    @Override
+    public void setDepartureDate(LocalDateTime departureDate) {
+        throw new UnsupportedOperationException("Columnar flights are rescheduled through FlightStorage.");
+    }
+
+    // A heap flight with the same attributes and references, for when the storage leaves columnar mode.
+    public Flight toFlight() {
+        Location scaleLocation = getScaleLocation();
+        if (scaleLocation == null) {
+            return new Flight(getId(), getPlane(), getDepartureLocation(), getArrivalLocation(), getDepartureDate(), getHoursDurationArrival(), getMinutesDurationArrival());
+        }
+        return new Flight(getId(), getPlane(), getDepartureLocation(), scaleLocation, getArrivalLocation(), getDepartureDate(), getHoursDurationArrival(), getMinutesDurationArrival(), getHoursDurationScale(), getMinutesDurationScale());
+    }
+
+    private Flight copy(Plane plane, Location departureLocation, Location scaleLocation, Location arrivalLocation, LocalDateTime departureDate) {
+        return block.columns.append(getId(), plane, departureLocation, scaleLocation, arrivalLocation, departureDate,
+                getHoursDurationArrival(), getMinutesDurationArrival(), getHoursDurationScale(), getMinutesDurationScale());
+    }
+}
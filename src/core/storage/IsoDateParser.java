@@ -0,0 +1,45 @@
+package core.storage;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Parses the fixed-width ISO-8601 forms used by the data files (yyyy-MM-dd
+ * and yyyy-MM-ddTHH:mm[:ss]) straight from the characters. Anything else is
+ * handed to the java.time parsers.
+ */
+final class IsoDateParser {
+
+    private IsoDateParser() {
+    }
+
+    static LocalDate parseDate(String text) {
+        if (text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return LocalDate.parse(text);
+        }
+        return LocalDate.of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10));
+    }
+
+    static LocalDateTime parseDateTime(String text) {
+        int length = text.length();
+        if ((length != 16 && length != 19) || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || text.charAt(10) != 'T' || text.charAt(13) != ':' || (length == 19 && text.charAt(16) != ':')) {
+            return LocalDateTime.parse(text);
+        }
+        int second = length == 19 ? digits(text, 17, 19) : 0;
+        return LocalDateTime.of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10),
+                digits(text, 11, 13), digits(text, 14, 16), second);
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Invalid date: " + text);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
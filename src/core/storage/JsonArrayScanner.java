@@ -0,0 +1,141 @@
+package core.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Finds the byte ranges of the elements of a top-level JSON array without
+ * parsing them. Only nesting and string state are tracked, which makes the
+ * pass far cheaper than tokenizing. Positions are longs, so the input may
+ * be a file of any size.
+ */
+final class JsonArrayScanner {
+
+    // String states a scan can be in between two bytes.
+    static final int OUTSIDE = 0;
+    static final int IN_STRING = 1;
+    static final int ESCAPED = 2;
+
+    interface Bytes {
+        long size();
+
+        byte get(long position);
+    }
+
+    interface ElementVisitor {
+        void visit(long start, long end);
+    }
+
+    private JsonArrayScanner() {
+    }
+
+    static Bytes of(ByteBuffer buffer) {
+        return new Bytes() {
+            @Override
+            public long size() {
+                return buffer.limit();
+            }
+
+            @Override
+            public byte get(long position) {
+                return buffer.get((int) position);
+            }
+        };
+    }
+
+    static void forEachElement(Bytes bytes, ElementVisitor visitor) {
+        int depth = 0;
+        long start = -1;
+        boolean inString = false;
+        boolean escaped = false;
+        long limit = bytes.size();
+        for (long i = 0; i < limit; i++) {
+            byte b = bytes.get(i);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                if (depth == 1) {
+                    start = i;
+                }
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                if (depth == 1) {
+                    visitor.visit(start, i + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans a range once for every state it could start in. The range's
+     * start state is not needed, so the ranges of one file can be summarized
+     * in parallel and then chained in order.
+     */
+    static Summary summarize(Bytes bytes, long from, long to) {
+        Summary summary = new Summary();
+        int[] states = summary.exitStates;
+        long[] depths = summary.depthChanges;
+        for (int state = OUTSIDE; state <= ESCAPED; state++) {
+            states[state] = state;
+        }
+        for (long i = from; i < to; i++) {
+            byte b = bytes.get(i);
+            for (int entry = OUTSIDE; entry <= ESCAPED; entry++) {
+                int state = states[entry];
+                if (state == OUTSIDE) {
+                    if (b == '{' || b == '[') {
+                        depths[entry]++;
+                    } else if (b == '}' || b == ']') {
+                        depths[entry]--;
+                    }
+                }
+                states[entry] = next(state, b);
+            }
+        }
+        return summary;
+    }
+
+    // Returns the start of the first element of the top-level array within the range, or -1.
+    static long firstElementStart(Bytes bytes, long from, long to, int state, long depth) {
+        for (long i = from; i < to; i++) {
+            byte b = bytes.get(i);
+            if (state == OUTSIDE) {
+                if (b == '{' || b == '[') {
+                    if (depth == 1) {
+                        return i;
+                    }
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                }
+            }
+            state = next(state, b);
+        }
+        return -1;
+    }
+
+    private static int next(int state, byte b) {
+        switch (state) {
+            case ESCAPED:
+                return IN_STRING;
+            case IN_STRING:
+                return b == '\\' ? ESCAPED : b == '"' ? OUTSIDE : IN_STRING;
+            default:
+                return b == '"' ? IN_STRING : OUTSIDE;
+        }
+    }
+
+    // For each start state: the state after the range and the change in nesting depth over it.
+    static final class Summary {
+        final int[] exitStates = new int[ESCAPED + 1];
+        final long[] depthChanges = new long[ESCAPED + 1];
+    }
+}
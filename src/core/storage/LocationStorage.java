@@ -1,45 +1,153 @@
 package core.storage;
 
 import core.model.Location;
+import core.design.observer.ChangeEvent;
 import core.design.observer.Observable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class LocationStorage extends Observable implements Storage<Location> {
 
-    private static LocationStorage instance;
-    private ArrayList<Location> locations;
+    private static final LocationStorage instance = new LocationStorage();
+    private static final Comparator<Location> BY_ID = Comparator.comparing(Location::getAirportId);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private LinkedHashMap<String, Location> locations;
+    private volatile StorageSnapshot<Location> snapshot;
 
     private LocationStorage() {
-        this.locations = new ArrayList<>();
+        this.locations = new LinkedHashMap<>();
+        this.snapshot = StorageSnapshot.empty();
     }
 
     public static LocationStorage getInstance() {
-        if (instance == null) {
-            instance = new LocationStorage();
-        }
         return instance;
     }
 
     @Override
     public boolean add(Location item) {
-        boolean exists = locations.stream().anyMatch(l -> l.getAirportId().equals(item.getAirportId()));
-        if (exists) {
-            return false;
+        this.lock.writeLock().lock();
+        try {
+            if (this.locations.containsKey(item.getAirportId())) {
+                return false;
+            }
+            this.locations.put(item.getAirportId(), item);
+            this.snapshot = this.snapshot.withAll(List.of(item), BY_ID);
+        } finally {
+            this.lock.writeLock().unlock();
         }
-        this.locations.add(item);
-        notifyAll(1);
+        notifyAll(new ChangeEvent<Location>(1).added(item.getAirportId(), item));
         return true;
     }
 
+    @Override
+    public int addAll(Collection<Location> items) {
+        ArrayList<Location> added = new ArrayList<>();
+        this.lock.writeLock().lock();
+        try {
+            for (Location item : items) {
+                if (this.locations.putIfAbsent(item.getAirportId(), item) == null) {
+                    added.add(item);
+                }
+            }
+            this.snapshot = this.snapshot.withAll(added, BY_ID);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        if (!added.isEmpty()) {
+            ChangeEvent<Location> event = new ChangeEvent<>(1);
+            for (Location item : added) {
+                event.added(item.getAirportId(), item);
+            }
+            notifyAll(event);
+        }
+        return added.size();
+    }
+
+    /**
+     * Inserts or replaces the upserts and removes the given ids as a single
+     * change with one notification. Upserts must have distinct ids.
+     */
+    @Override
+    public int applyChanges(Collection<Location> upserts, Collection<String> removedIds) {
+        ChangeEvent<Location> event = new ChangeEvent<>(2);
+        int changed = 0;
+        this.lock.writeLock().lock();
+        try {
+            StorageSnapshot<Location> next = this.snapshot;
+            ArrayList<Location> inserted = new ArrayList<>();
+            for (String id : removedIds) {
+                Location previous = this.locations.remove(id);
+                if (previous != null) {
+                    next = next.withRemove(indexOf(next, id));
+                    event.removed(id, previous);
+                    changed++;
+                }
+            }
+            for (Location item : upserts) {
+                Location previous = this.locations.put(item.getAirportId(), item);
+                if (previous == null) {
+                    inserted.add(item);
+                    event.added(item.getAirportId(), item);
+                } else {
+                    event.updated(item.getAirportId(), previous, item);
+                    next = next.withSet(indexOf(next, item.getAirportId()), item);
+                }
+                changed++;
+            }
+            this.snapshot = next.withAll(inserted, BY_ID);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        if (changed > 0) {
+            notifyAll(event);
+        }
+        return changed;
+    }
+
     @Override
     public Location get(String id) {
-        return locations.stream()
-                        .filter(location -> location.getAirportId().equals(id))
-                        .findFirst()
-                        .orElse(null);
+        this.lock.readLock().lock();
+        try {
+            return this.locations.get(id);
+        } finally {
+            this.lock.readLock().unlock();
+        }
     }
 
     public ArrayList<Location> getAll() {
-        return new ArrayList<>(this.locations);
+        this.lock.readLock().lock();
+        try {
+            return new ArrayList<>(this.locations.values());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public StorageSnapshot<Location> getSnapshot() {
+        return this.snapshot;
+    }
+
+    public long getVersion() {
+        return this.snapshot.getVersion();
+    }
+
+    @Override
+    public Page<Location> getPage(int offset, int limit) {
+        return Page.of(this.snapshot, offset, limit, Location::getAirportId);
+    }
+
+    @Override
+    public Page<Location> getPageAfter(String token, int limit) {
+        StorageSnapshot<Location> current = this.snapshot;
+        int offset = token == null ? 0 : current.indexOfFirst(other -> other.getAirportId().compareTo(token) > 0);
+        return Page.of(current, offset, limit, Location::getAirportId);
+    }
+
+    private static int indexOf(StorageSnapshot<Location> snapshot, String id) {
+        return snapshot.indexOfFirst(other -> other.getAirportId().compareTo(id) >= 0);
     }
 }
\ No newline at end of file
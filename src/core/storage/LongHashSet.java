@@ -0,0 +1,100 @@
+package core.storage;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of non-negative longs. Removal shifts the following
+ * entries back instead of leaving tombstones, so lookups stay short under
+ * heavy add/remove churn.
+ */
+class LongHashSet {
+
+    private static final long EMPTY = -1L;
+
+    private long[] table;
+    private int size;
+
+    public LongHashSet() {
+        this.table = new long[32];
+        Arrays.fill(this.table, EMPTY);
+    }
+
+    public boolean contains(long value) {
+        int mask = this.table.length - 1;
+        int slot = hash(value) & mask;
+        while (this.table[slot] != EMPTY) {
+            if (this.table[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean add(long value) {
+        if ((this.size + 1) * 2 > this.table.length) {
+            rehash(this.table.length * 2);
+        }
+        int mask = this.table.length - 1;
+        int slot = hash(value) & mask;
+        while (this.table[slot] != EMPTY) {
+            if (this.table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = value;
+        this.size++;
+        return true;
+    }
+
+    public boolean remove(long value) {
+        int mask = this.table.length - 1;
+        int slot = hash(value) & mask;
+        while (this.table[slot] != value) {
+            if (this.table[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Pull back every later entry of the probe run that would otherwise become unreachable.
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (this.table[next] != EMPTY) {
+            int home = hash(this.table[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                this.table[hole] = this.table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        this.table[hole] = EMPTY;
+        this.size--;
+        return true;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    private void rehash(int capacity) {
+        long[] previous = this.table;
+        this.table = new long[capacity];
+        Arrays.fill(this.table, EMPTY);
+        int mask = capacity - 1;
+        for (long value : previous) {
+            if (value != EMPTY) {
+                int slot = hash(value) & mask;
+                while (this.table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                this.table[slot] = value;
+            }
+        }
+    }
+
+    private static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,109 @@
+package core.storage;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from longs to non-negative ints, kept in two parallel
+ * arrays so that no key or value is boxed. Removal shifts the following
+ * entries back, as in LongHashSet. Long.MIN_VALUE cannot be used as a key.
+ */
+class LongIntMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntMap() {
+        this.keys = new long[32];
+        this.values = new int[32];
+        Arrays.fill(this.keys, EMPTY);
+    }
+
+    // Returns -1 when the key is missing.
+    public int get(long key) {
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.keys[slot] != EMPTY) {
+            if (this.keys[slot] == key) {
+                return this.values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public void put(long key, int value) {
+        if ((this.size + 1) * 2 > this.keys.length) {
+            rehash(this.keys.length * 2);
+        }
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.keys[slot] != EMPTY) {
+            if (this.keys[slot] == key) {
+                this.values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        this.size++;
+    }
+
+    // Returns the removed value, or -1 when the key was missing.
+    public int remove(long key) {
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.keys[slot] != key) {
+            if (this.keys[slot] == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int removed = this.values[slot];
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (this.keys[next] != EMPTY) {
+            int home = hash(this.keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                this.keys[hole] = this.keys[next];
+                this.values[hole] = this.values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        this.keys[hole] = EMPTY;
+        this.size--;
+        return removed;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    private void rehash(int capacity) {
+        long[] previousKeys = this.keys;
+        int[] previousValues = this.values;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(this.keys, EMPTY);
+        int mask = capacity - 1;
+        for (int i = 0; i < previousKeys.length; i++) {
+            if (previousKeys[i] != EMPTY) {
+                int slot = hash(previousKeys[i]) & mask;
+                while (this.keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = previousKeys[i];
+                this.values[slot] = previousValues[i];
+            }
+        }
+    }
+
+    private static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,131 @@
+package core.storage;
+
+import core.model.Passenger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+
+class LongPassengerMap {
+
+    private static final int EMPTY = 0;
+
+    private long[] keys;
+    private Passenger[] values;
+    private int[] table;
+    private int size;
+
+    public LongPassengerMap() {
+        this.keys = new long[16];
+        this.values = new Passenger[16];
+        this.table = new int[32];
+        this.size = 0;
+    }
+
+    public Passenger get(long id) {
+        int position = find(id);
+        return position < 0 ? null : this.values[position];
+    }
+
+    public boolean containsKey(long id) {
+        return find(id) >= 0;
+    }
+
+    public boolean put(Passenger passenger) {
+        long id = passenger.getId();
+        if (find(id) >= 0) {
+            return false;
+        }
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        if ((this.size + 1) * 2 > this.table.length) {
+            rehash(this.table.length * 2);
+        }
+        this.keys[this.size] = id;
+        this.values[this.size] = passenger;
+        this.size++;
+        insertSlot(id, this.size);
+        return true;
+    }
+
+    public boolean replace(Passenger passenger) {
+        int position = find(passenger.getId());
+        if (position < 0) {
+            return false;
+        }
+        this.values[position] = passenger;
+        return true;
+    }
+
+    // Compacts the dense arrays in one pass so the remaining entries keep their insertion order.
+    public int removeAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        HashSet<Long> doomed = new HashSet<>(ids);
+        int kept = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (!doomed.contains(this.keys[i])) {
+                this.keys[kept] = this.keys[i];
+                this.values[kept] = this.values[i];
+                kept++;
+            }
+        }
+        int removed = this.size - kept;
+        Arrays.fill(this.values, kept, this.size, null);
+        this.size = kept;
+        if (removed > 0) {
+            rehash(this.table.length);
+        }
+        return removed;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public ArrayList<Passenger> values() {
+        ArrayList<Passenger> list = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            list.add(this.values[i]);
+        }
+        return list;
+    }
+
+    // Slots hold position + 1 into the dense arrays so that 0 can mark an empty slot.
+    private int find(long id) {
+        int mask = this.table.length - 1;
+        int slot = hash(id) & mask;
+        while (this.table[slot] != EMPTY) {
+            int position = this.table[slot] - 1;
+            if (this.keys[position] == id) {
+                return position;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insertSlot(long id, int positionPlusOne) {
+        int mask = this.table.length - 1;
+        int slot = hash(id) & mask;
+        while (this.table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = positionPlusOne;
+    }
+
+    private void rehash(int capacity) {
+        this.table = new int[capacity];
+        for (int i = 0; i < this.size; i++) {
+            insertSlot(this.keys[i], i + 1);
+        }
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,72 @@
+package core.storage;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only file mapped as a run of windows, since a single mapping
+ * cannot exceed 2 GiB. Positions are longs over the whole file.
+ */
+final class MappedFile implements JsonArrayScanner.Bytes {
+
+    private static final int WINDOW_SHIFT = 30;
+
+    private final MappedByteBuffer[] windows;
+    private final int shift;
+    private final long mask;
+    private final long size;
+
+    private MappedFile(MappedByteBuffer[] windows, int shift, long size) {
+        this.windows = windows;
+        this.shift = shift;
+        this.mask = (1L << shift) - 1;
+        this.size = size;
+    }
+
+    static MappedFile open(Path path) throws IOException {
+        return open(path, WINDOW_SHIFT);
+    }
+
+    // Smaller windows let reads across window ends be exercised without multi-gigabyte files.
+    static MappedFile open(Path path, int windowShift) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long windowBytes = 1L << windowShift;
+            MappedByteBuffer[] windows = new MappedByteBuffer[(int) ((size + windowBytes - 1) >>> windowShift)];
+            for (int i = 0; i < windows.length; i++) {
+                long start = i * windowBytes;
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowBytes, size - start));
+            }
+            return new MappedFile(windows, windowShift, size);
+        }
+    }
+
+    @Override
+    public long size() {
+        return this.size;
+    }
+
+    @Override
+    public byte get(long position) {
+        return this.windows[(int) (position >>> this.shift)].get((int) (position & this.mask));
+    }
+
+    // Decodes a range that may span windows; the range itself must fit in one String.
+    String decode(long from, long to) {
+        byte[] copy = new byte[Math.toIntExact(to - from)];
+        int copied = 0;
+        while (copied < copy.length) {
+            long position = from + copied;
+            MappedByteBuffer window = this.windows[(int) (position >>> this.shift)];
+            int offset = (int) (position & this.mask);
+            int count = Math.min(copy.length - copied, window.limit() - offset);
+            window.get(offset, copy, copied, count);
+            copied += count;
+        }
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,107 @@
+package core.storage;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * UTF-8 reader over a memory-mapped file. Characters are decoded on demand
+ * into a small buffer, so the file contents never have to be copied onto
+ * the heap as a whole. A single mapping cannot exceed 2 GiB, so the file is
+ * mapped one window at a time and only the current window is held.
+ */
+class MappedFileReader extends Reader {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final long WINDOW_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowBytes;
+    private final CharsetDecoder decoder;
+    private final CharBuffer chars;
+    private MappedByteBuffer bytes;
+    private long windowStart;
+    private boolean flushed;
+
+    MappedFileReader(Path path) throws IOException {
+        this(path, WINDOW_BYTES);
+    }
+
+    // Smaller windows let the window changes be exercised without multi-gigabyte files.
+    // A window always holds at least one whole UTF-8 sequence, so each one makes progress.
+    MappedFileReader(Path path, long windowBytes) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = this.channel.size();
+        this.windowBytes = Math.max(windowBytes, 4);
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = CharBuffer.allocate(BUFFER_SIZE);
+        this.chars.flip();
+        try {
+            map(0);
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(char[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!this.chars.hasRemaining() && !fill()) {
+            return -1;
+        }
+        int count = Math.min(length, this.chars.remaining());
+        this.chars.get(target, offset, count);
+        return count;
+    }
+
+    /**
+     * Only the last window is decoded as the end of the input. A character
+     * cut by the end of an earlier window stays undecoded, and the next
+     * window is mapped from its first byte.
+     */
+    private boolean fill() throws IOException {
+        if (this.flushed) {
+            return false;
+        }
+        while (true) {
+            boolean last = this.windowStart + this.bytes.limit() >= this.size;
+            this.chars.clear();
+            CoderResult result = this.decoder.decode(this.bytes, this.chars, last);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (last && !this.bytes.hasRemaining()) {
+                this.flushed = this.decoder.flush(this.chars).isUnderflow();
+            }
+            this.chars.flip();
+            if (this.chars.hasRemaining() || last) {
+                return this.chars.hasRemaining();
+            }
+            map(this.windowStart + this.bytes.position());
+        }
+    }
+
+    private void map(long start) throws IOException {
+        this.windowStart = start;
+        this.bytes = this.channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(this.windowBytes, this.size - start));
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
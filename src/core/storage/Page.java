@@ -0,0 +1,69 @@
+package core.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public class Page<T> {
+
+    private final List<T> items;
+    private final int offset;
+    private final int total;
+    private final String nextToken;
+    private final long version;
+
+    public Page(List<T> items, int offset, int total, String nextToken, long version) {
+        this.items = items;
+        this.offset = offset;
+        this.total = total;
+        this.nextToken = nextToken;
+        this.version = version;
+    }
+
+    // The items are a view over the snapshot, so building a page never copies more than the page itself.
+    static <T> Page<T> of(StorageSnapshot<T> snapshot, int offset, int limit, Function<T, String> tokenOf) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("The page offset cannot be negative.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("The page size must be greater than 0.");
+        }
+        int from = Math.min(offset, snapshot.size());
+        int to = (int) Math.min((long) from + limit, snapshot.size());
+        List<T> items = snapshot.subList(from, to);
+        String nextToken = to < snapshot.size() ? tokenOf.apply(items.get(items.size() - 1)) : null;
+        return new Page<>(items, from, snapshot.size(), nextToken, snapshot.getVersion());
+    }
+
+    public <R> Page<R> map(Function<? super T, ? extends R> mapper) {
+        ArrayList<R> mapped = new ArrayList<>(this.items.size());
+        for (T item : this.items) {
+            mapped.add(mapper.apply(item));
+        }
+        return new Page<>(mapped, this.offset, this.total, this.nextToken, this.version);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
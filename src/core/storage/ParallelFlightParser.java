@@ -0,0 +1,127 @@
+package core.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+import java.util.function.IntConsumer;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * Splits a JSON array of flights into chunks that start on element
+ * boundaries and parses the chunks on a ForkJoinPool. Each chunk keeps its
+ * records and warnings in file order, and the chunks come back in file order.
+ */
+class ParallelFlightParser {
+
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    private final Path path;
+    private final BiFunction<JSONObject, List<String>, DataProcessor.FlightRecord> parser;
+
+    ParallelFlightParser(Path path, BiFunction<JSONObject, List<String>, DataProcessor.FlightRecord> parser) {
+        this.path = path;
+        this.parser = parser;
+    }
+
+    List<Chunk> parse(ForkJoinPool pool) throws IOException {
+        return parse(pool, MappedFile.open(this.path));
+    }
+
+    // Takes the mapping so that callers can choose its window size.
+    List<Chunk> parse(ForkJoinPool pool, MappedFile file) throws IOException {
+        long[] starts = chunkStarts(file, pool);
+        Chunk[] chunks = new Chunk[starts.length];
+        try {
+            pool.invoke(new RangeTask(0, starts.length, i -> {
+                long end = i + 1 < starts.length ? starts[i + 1] : file.size();
+                chunks[i] = parseChunk(file, starts[i], end);
+            }));
+        } catch (JSONException e) {
+            throw new IOException("Could not read " + this.path + ": " + e.getMessage(), e);
+        }
+        return List.of(chunks);
+    }
+
+    /**
+     * Every chunk starts at the opening brace of a top-level array element.
+     * The file is cut into fixed ranges, which are summarized in parallel.
+     * The summaries are chained to get the scan state at each range's start,
+     * and then every range finds its first element in parallel. Only the
+     * chaining is serial, at one step per range.
+     */
+    private static long[] chunkStarts(MappedFile file, ForkJoinPool pool) {
+        long size = file.size();
+        int count = (int) Math.max(1, (size + CHUNK_BYTES - 1) / CHUNK_BYTES);
+        JsonArrayScanner.Summary[] summaries = new JsonArrayScanner.Summary[count];
+        pool.invoke(new RangeTask(0, count, i -> summaries[i] = JsonArrayScanner.summarize(file,
+                (long) i * CHUNK_BYTES, Math.min(size, (long) (i + 1) * CHUNK_BYTES))));
+        int[] states = new int[count];
+        long[] depths = new long[count];
+        for (int i = 1; i < count; i++) {
+            int entry = states[i - 1];
+            states[i] = summaries[i - 1].exitStates[entry];
+            depths[i] = depths[i - 1] + summaries[i - 1].depthChanges[entry];
+        }
+        long[] starts = new long[count];
+        pool.invoke(new RangeTask(0, count, i -> starts[i] = JsonArrayScanner.firstElementStart(file,
+                (long) i * CHUNK_BYTES, Math.min(size, (long) (i + 1) * CHUNK_BYTES), states[i], depths[i])));
+        // A range inside one long element has no start of its own and joins the chunk before it.
+        return Arrays.stream(starts).filter(start -> start >= 0).toArray();
+    }
+
+    private Chunk parseChunk(MappedFile file, long from, long to) {
+        Chunk chunk = new Chunk();
+        JSONTokener tokener = new JSONTokener(file.decode(from, to));
+        char next = tokener.nextClean();
+        while (next != 0 && next != ']') {
+            if (next != ',') {
+                tokener.back();
+                DataProcessor.FlightRecord record = this.parser.apply(new JSONObject(tokener), chunk.warnings);
+                if (record != null) {
+                    chunk.records.add(record);
+                }
+            }
+            next = tokener.nextClean();
+        }
+        return chunk;
+    }
+
+    static final class Chunk {
+        final ArrayList<DataProcessor.FlightRecord> records = new ArrayList<>();
+        final ArrayList<String> warnings = new ArrayList<>();
+    }
+
+    // Runs the action for every index in [from, to), splitting the indexes across the pool.
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        private RangeTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= 1) {
+                if (this.to > this.from) {
+                    this.action.accept(this.from);
+                }
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new RangeTask(this.from, middle, this.action), new RangeTask(middle, this.to, this.action));
+        }
+    }
+}
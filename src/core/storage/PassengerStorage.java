@@ -1,61 +1,212 @@
 package core.storage;
 
 import core.model.Passenger;
+import core.design.observer.ChangeEvent;
 import core.design.observer.Observable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class PassengerStorage extends Observable implements Storage<Passenger> {
 
-    private static PassengerStorage instance;
-    private ArrayList<Passenger> passengers;
+    private static final PassengerStorage instance = new PassengerStorage();
+    private static final Comparator<Passenger> BY_ID = Comparator.comparingLong(Passenger::getId);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private LongPassengerMap passengers;
+    private volatile StorageSnapshot<Passenger> snapshot;
 
     private PassengerStorage() {
-        this.passengers = new ArrayList<>();
+        this.passengers = new LongPassengerMap();
+        this.snapshot = StorageSnapshot.empty();
     }
 
     public static PassengerStorage getInstance() {
-        if (instance == null) {
-            instance = new PassengerStorage();
-        }
         return instance;
     }
 
     @Override
     public boolean add(Passenger item) {
-        boolean exists = passengers.stream().anyMatch(p -> p.getId() == item.getId());
-        if (exists) {
-            return false;
+        this.lock.writeLock().lock();
+        try {
+            if (!this.passengers.put(item)) {
+                return false;
+            }
+            this.snapshot = this.snapshot.withAll(List.of(item), BY_ID);
+        } finally {
+            this.lock.writeLock().unlock();
         }
-        this.passengers.add(item);
-        notifyAll(1);
+        notifyAll(new ChangeEvent<Passenger>(1).added(tokenOf(item), item));
         return true;
     }
 
     public boolean update(Passenger item) {
-        for (int i = 0; i < this.passengers.size(); i++) {
-            if (this.passengers.get(i).getId() == item.getId()) {
-                this.passengers.set(i, item);
-                notifyAll(2);
-                return true;
+        Passenger previous;
+        this.lock.writeLock().lock();
+        try {
+            previous = this.passengers.get(item.getId());
+            if (!this.passengers.replace(item)) {
+                return false;
+            }
+            BookingStore.getInstance().replace(item);
+            this.snapshot = this.snapshot.withSet(indexOf(item.getId()), item);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        notifyAll(new ChangeEvent<Passenger>(2).updated(tokenOf(item), previous, item));
+        return true;
+    }
+
+    // Bookings change the relation, not the passenger, so the snapshot is kept and only observers are told.
+    public int refresh(Collection<Long> ids) {
+        ChangeEvent<Passenger> event = new ChangeEvent<>(2);
+        this.lock.readLock().lock();
+        try {
+            for (long id : ids) {
+                Passenger current = this.passengers.get(id);
+                if (current != null) {
+                    event.updated(tokenOf(current), current, current);
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        if (event.hasChanges()) {
+            notifyAll(event);
+        }
+        return event.getChanges().size();
+    }
+
+    @Override
+    public int addAll(Collection<Passenger> items) {
+        ArrayList<Passenger> added = new ArrayList<>();
+        this.lock.writeLock().lock();
+        try {
+            for (Passenger item : items) {
+                if (this.passengers.put(item)) {
+                    added.add(item);
+                }
             }
+            this.snapshot = this.snapshot.withAll(added, BY_ID);
+        } finally {
+            this.lock.writeLock().unlock();
         }
-        return false;
+        if (!added.isEmpty()) {
+            ChangeEvent<Passenger> event = new ChangeEvent<>(1);
+            for (Passenger item : added) {
+                event.added(tokenOf(item), item);
+            }
+            notifyAll(event);
+        }
+        return added.size();
+    }
+
+    /**
+     * Inserts or replaces the upserts and removes the given ids as a single
+     * change with one notification. Upserts must have distinct ids.
+     */
+    @Override
+    public int applyChanges(Collection<Passenger> upserts, Collection<String> removedIds) {
+        ChangeEvent<Passenger> event = new ChangeEvent<>(2);
+        int changed = 0;
+        this.lock.writeLock().lock();
+        try {
+            StorageSnapshot<Passenger> next = this.snapshot;
+            ArrayList<Long> removed = new ArrayList<>();
+            for (String id : removedIds) {
+                Passenger previous = get(id);
+                if (previous != null) {
+                    next = next.withRemove(next.indexOfFirst(other -> other.getId() >= previous.getId()));
+                    removed.add(previous.getId());
+                    BookingStore.getInstance().removePassenger(previous.getId());
+                    event.removed(tokenOf(previous), previous);
+                }
+            }
+            this.passengers.removeAll(removed);
+            changed += removed.size();
+            ArrayList<Passenger> inserted = new ArrayList<>();
+            for (Passenger item : upserts) {
+                if (this.passengers.put(item)) {
+                    inserted.add(item);
+                    event.added(tokenOf(item), item);
+                } else {
+                    event.updated(tokenOf(item), this.passengers.get(item.getId()), item);
+                    this.passengers.replace(item);
+                    BookingStore.getInstance().replace(item);
+                    next = next.withSet(next.indexOfFirst(other -> other.getId() >= item.getId()), item);
+                }
+                changed++;
+            }
+            this.snapshot = next.withAll(inserted, BY_ID);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        if (changed > 0) {
+            notifyAll(event);
+        }
+        return changed;
     }
 
     @Override
     public Passenger get(String id) {
         try {
-            Long idLong = Long.parseLong(id);
-            return passengers.stream()
-                             .filter(passenger -> passenger.getId() == idLong)
-                             .findFirst()
-                             .orElse(null);
+            return get(Long.parseLong(id));
         } catch (NumberFormatException e) {
             return null; 
         }
     }
 
+    public Passenger get(long id) {
+        this.lock.readLock().lock();
+        try {
+            return this.passengers.get(id);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
     public ArrayList<Passenger> getAll() {
-        return new ArrayList<>(this.passengers);
+        this.lock.readLock().lock();
+        try {
+            return this.passengers.values();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public StorageSnapshot<Passenger> getSnapshot() {
+        return this.snapshot;
+    }
+
+    public long getVersion() {
+        return this.snapshot.getVersion();
+    }
+
+    @Override
+    public Page<Passenger> getPage(int offset, int limit) {
+        return Page.of(this.snapshot, offset, limit, PassengerStorage::tokenOf);
+    }
+
+    @Override
+    public Page<Passenger> getPageAfter(String token, int limit) {
+        StorageSnapshot<Passenger> current = this.snapshot;
+        if (token == null) {
+            return Page.of(current, 0, limit, PassengerStorage::tokenOf);
+        }
+        try {
+            long lastId = Long.parseLong(token);
+            return Page.of(current, current.indexOfFirst(other -> other.getId() > lastId), limit, PassengerStorage::tokenOf);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The page token is not valid.");
+        }
+    }
+
+    private static String tokenOf(Passenger passenger) {
+        return String.valueOf(passenger.getId());
+    }
+
+    private int indexOf(long id) {
+        return this.snapshot.indexOfFirst(other -> other.getId() >= id);
     }
 }
\ No newline at end of file
@@ -1,45 +1,153 @@
 package core.storage;
 
 import core.model.Plane;
+import core.design.observer.ChangeEvent;
 import core.design.observer.Observable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class PlaneStorage extends Observable implements Storage<Plane> {
 
-    private static PlaneStorage instance;
-    private ArrayList<Plane> planes;
+    private static final PlaneStorage instance = new PlaneStorage();
+    private static final Comparator<Plane> BY_ID = Comparator.comparing(Plane::getId);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private LinkedHashMap<String, Plane> planes;
+    private volatile StorageSnapshot<Plane> snapshot;
 
     private PlaneStorage() {
-        this.planes = new ArrayList<>();
+        this.planes = new LinkedHashMap<>();
+        this.snapshot = StorageSnapshot.empty();
     }
 
     public static PlaneStorage getInstance() {
-        if (instance == null) {
-            instance = new PlaneStorage();
-        }
         return instance;
     }
 
     @Override
     public boolean add(Plane item) {
-        boolean exists = planes.stream().anyMatch(p -> p.getId().equals(item.getId()));
-        if (exists) {
-            return false;
+        this.lock.writeLock().lock();
+        try {
+            if (this.planes.containsKey(item.getId())) {
+                return false;
+            }
+            this.planes.put(item.getId(), item);
+            this.snapshot = this.snapshot.withAll(List.of(item), BY_ID);
+        } finally {
+            this.lock.writeLock().unlock();
         }
-        this.planes.add(item);
-        notifyAll(1);
+        notifyAll(new ChangeEvent<Plane>(1).added(item.getId(), item));
         return true;
     }
 
+    @Override
+    public int addAll(Collection<Plane> items) {
+        ArrayList<Plane> added = new ArrayList<>();
+        this.lock.writeLock().lock();
+        try {
+            for (Plane item : items) {
+                if (this.planes.putIfAbsent(item.getId(), item) == null) {
+                    added.add(item);
+                }
+            }
+            this.snapshot = this.snapshot.withAll(added, BY_ID);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        if (!added.isEmpty()) {
+            ChangeEvent<Plane> event = new ChangeEvent<>(1);
+            for (Plane item : added) {
+                event.added(item.getId(), item);
+            }
+            notifyAll(event);
+        }
+        return added.size();
+    }
+
+    /**
+     * Inserts or replaces the upserts and removes the given ids as a single
+     * change with one notification. Upserts must have distinct ids.
+     */
+    @Override
+    public int applyChanges(Collection<Plane> upserts, Collection<String> removedIds) {
+        ChangeEvent<Plane> event = new ChangeEvent<>(2);
+        int changed = 0;
+        this.lock.writeLock().lock();
+        try {
+            StorageSnapshot<Plane> next = this.snapshot;
+            ArrayList<Plane> inserted = new ArrayList<>();
+            for (String id : removedIds) {
+                Plane previous = this.planes.remove(id);
+                if (previous != null) {
+                    next = next.withRemove(indexOf(next, id));
+                    event.removed(id, previous);
+                    changed++;
+                }
+            }
+            for (Plane item : upserts) {
+                Plane previous = this.planes.put(item.getId(), item);
+                if (previous == null) {
+                    inserted.add(item);
+                    event.added(item.getId(), item);
+                } else {
+                    event.updated(item.getId(), previous, item);
+                    next = next.withSet(indexOf(next, item.getId()), item);
+                }
+                changed++;
+            }
+            this.snapshot = next.withAll(inserted, BY_ID);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        if (changed > 0) {
+            notifyAll(event);
+        }
+        return changed;
+    }
+
     @Override
     public Plane get(String id) {
-        return planes.stream()
-                     .filter(plane -> plane.getId().equals(id))
-                     .findFirst()
-                     .orElse(null);
+        this.lock.readLock().lock();
+        try {
+            return this.planes.get(id);
+        } finally {
+            this.lock.readLock().unlock();
+        }
     }
 
     public ArrayList<Plane> getAll() {
-        return new ArrayList<>(this.planes);
+        this.lock.readLock().lock();
+        try {
+            return new ArrayList<>(this.planes.values());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public StorageSnapshot<Plane> getSnapshot() {
+        return this.snapshot;
+    }
+
+    public long getVersion() {
+        return this.snapshot.getVersion();
+    }
+
+    @Override
+    public Page<Plane> getPage(int offset, int limit) {
+        return Page.of(this.snapshot, offset, limit, Plane::getId);
+    }
+
+    @Override
+    public Page<Plane> getPageAfter(String token, int limit) {
+        StorageSnapshot<Plane> current = this.snapshot;
+        int offset = token == null ? 0 : current.indexOfFirst(other -> other.getId().compareTo(token) > 0);
+        return Page.of(current, offset, limit, Plane::getId);
+    }
+
+    private static int indexOf(StorageSnapshot<Plane> snapshot, String id) {
+        return snapshot.indexOfFirst(other -> other.getId().compareTo(id) >= 0);
     }
 }
\ No newline at end of file
@@ -1,6 +1,12 @@
 package core.storage;
 
+import java.util.Collection;
+
 public interface Storage<T>{
     boolean add(T item);
+    int addAll(Collection<T> items);
+    int applyChanges(Collection<T> upserts, Collection<String> removedIds);
     T get(String id);
+    Page<T> getPage(int offset, int limit);
+    Page<T> getPageAfter(String token, int limit);
 }
\ No newline at end of file
@@ -0,0 +1,260 @@
+package core.storage;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, versioned view of a storage. Elements live in small chunks that
+ * are shared between versions, so a write only copies the chunk it touches
+ * plus the chunk directory instead of the whole dataset.
+ */
+public final class StorageSnapshot<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int CHUNK_SIZE = 64;
+    private static final StorageSnapshot<?> EMPTY = new StorageSnapshot<>(new Object[0][], new int[0], 0);
+
+    private final Object[][] chunks;
+    private final int[] ends;
+    private final long version;
+
+    private StorageSnapshot(Object[][] chunks, int[] ends, long version) {
+        this.chunks = chunks;
+        this.ends = ends;
+        this.version = version;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> StorageSnapshot<T> empty() {
+        return (StorageSnapshot<T>) EMPTY;
+    }
+
+    public static <T> StorageSnapshot<T> of(List<? extends T> items, long version) {
+        int count = (items.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Object[][] chunks = new Object[count][];
+        int[] ends = new int[count];
+        for (int c = 0; c < count; c++) {
+            int from = c * CHUNK_SIZE;
+            int to = Math.min(from + CHUNK_SIZE, items.size());
+            chunks[c] = items.subList(from, to).toArray();
+            ends[c] = to;
+        }
+        return new StorageSnapshot<>(chunks, ends, version);
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    @Override
+    public int size() {
+        return this.ends.length == 0 ? 0 : this.ends[this.ends.length - 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        int c = chunkOf(index);
+        return (T) this.chunks[c][index - start(c)];
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int chunk = 0;
+            private int offset = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.chunk < chunks.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T item = (T) chunks[this.chunk][this.offset++];
+                if (this.offset == chunks[this.chunk].length) {
+                    this.chunk++;
+                    this.offset = 0;
+                }
+                return item;
+            }
+        };
+    }
+
+    /**
+     * Returns the first index whose element satisfies the predicate, or size()
+     * when none does. The predicate must be monotonic over the snapshot order.
+     */
+    @SuppressWarnings("unchecked")
+    public int indexOfFirst(Predicate<? super T> atOrAfter) {
+        int low = 0;
+        int high = this.chunks.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Object[] chunk = this.chunks[mid];
+            if (atOrAfter.test((T) chunk[chunk.length - 1])) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        if (low == this.chunks.length) {
+            return size();
+        }
+        Object[] chunk = this.chunks[low];
+        int from = 0;
+        int to = chunk.length - 1;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (atOrAfter.test((T) chunk[mid])) {
+                to = mid;
+            } else {
+                from = mid + 1;
+            }
+        }
+        return start(low) + from;
+    }
+
+    public StorageSnapshot<T> withInsert(int index, T item) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        if (this.chunks.length == 0) {
+            return new StorageSnapshot<>(new Object[][]{{item}}, new int[]{1}, this.version + 1);
+        }
+        int c = index == size() ? this.chunks.length - 1 : chunkOf(index);
+        int offset = index - start(c);
+        Object[] chunk = this.chunks[c];
+        Object[] grown = new Object[chunk.length + 1];
+        System.arraycopy(chunk, 0, grown, 0, offset);
+        grown[offset] = item;
+        System.arraycopy(chunk, offset, grown, offset + 1, chunk.length - offset);
+
+        if (grown.length <= CHUNK_SIZE) {
+            Object[][] newChunks = this.chunks.clone();
+            newChunks[c] = grown;
+            return new StorageSnapshot<>(newChunks, shiftedEnds(this.ends, c, 1), this.version + 1);
+        }
+        int half = grown.length / 2;
+        Object[][] newChunks = new Object[this.chunks.length + 1][];
+        System.arraycopy(this.chunks, 0, newChunks, 0, c);
+        newChunks[c] = Arrays.copyOfRange(grown, 0, half);
+        newChunks[c + 1] = Arrays.copyOfRange(grown, half, grown.length);
+        System.arraycopy(this.chunks, c + 1, newChunks, c + 2, this.chunks.length - c - 1);
+        return new StorageSnapshot<>(newChunks, recomputeEnds(newChunks, this.ends, c), this.version + 1);
+    }
+
+    /**
+     * Adds a batch of items to a snapshot kept in the given order. Items that
+     * compare equal to an existing element are placed after it, and the batch
+     * keeps its own relative order among equal items.
+     */
+    public StorageSnapshot<T> withAll(Collection<? extends T> items, Comparator<? super T> order) {
+        if (items.isEmpty()) {
+            return this;
+        }
+        ArrayList<T> batch = new ArrayList<>(items);
+        batch.sort(order);
+        if (batch.size() < CHUNK_SIZE && batch.size() * CHUNK_SIZE < size()) {
+            StorageSnapshot<T> result = this;
+            for (T item : batch) {
+                StorageSnapshot<T> current = result;
+                result = current.withInsert(current.indexOfFirst(other -> order.compare(other, item) > 0), item);
+            }
+            return new StorageSnapshot<>(result.chunks, result.ends, this.version + 1);
+        }
+        ArrayList<T> merged = new ArrayList<>(size() + batch.size());
+        Iterator<T> existing = iterator();
+        T next = existing.hasNext() ? existing.next() : null;
+        for (T item : batch) {
+            while (next != null && order.compare(next, item) <= 0) {
+                merged.add(next);
+                next = existing.hasNext() ? existing.next() : null;
+            }
+            merged.add(item);
+        }
+        while (next != null) {
+            merged.add(next);
+            next = existing.hasNext() ? existing.next() : null;
+        }
+        return of(merged, this.version + 1);
+    }
+
+    public StorageSnapshot<T> withSet(int index, T item) {
+        int c = chunkOf(index);
+        Object[] chunk = this.chunks[c].clone();
+        chunk[index - start(c)] = item;
+        Object[][] newChunks = this.chunks.clone();
+        newChunks[c] = chunk;
+        return new StorageSnapshot<>(newChunks, this.ends, this.version + 1);
+    }
+
+    public StorageSnapshot<T> withRemove(int index) {
+        int c = chunkOf(index);
+        int offset = index - start(c);
+        Object[] chunk = this.chunks[c];
+        if (chunk.length == 1) {
+            Object[][] newChunks = new Object[this.chunks.length - 1][];
+            System.arraycopy(this.chunks, 0, newChunks, 0, c);
+            System.arraycopy(this.chunks, c + 1, newChunks, c, this.chunks.length - c - 1);
+            return new StorageSnapshot<>(newChunks, recomputeEnds(newChunks, this.ends, c), this.version + 1);
+        }
+        Object[] shrunk = new Object[chunk.length - 1];
+        System.arraycopy(chunk, 0, shrunk, 0, offset);
+        System.arraycopy(chunk, offset + 1, shrunk, offset, chunk.length - offset - 1);
+        Object[][] newChunks = this.chunks.clone();
+        newChunks[c] = shrunk;
+        return new StorageSnapshot<>(newChunks, shiftedEnds(this.ends, c, -1), this.version + 1);
+    }
+
+    private int chunkOf(int index) {
+        int low = 0;
+        int high = this.ends.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.ends[mid] > index) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private int start(int chunk) {
+        return chunk == 0 ? 0 : this.ends[chunk - 1];
+    }
+
+    private static int[] shiftedEnds(int[] ends, int from, int delta) {
+        int[] shifted = ends.clone();
+        for (int i = from; i < shifted.length; i++) {
+            shifted[i] += delta;
+        }
+        return shifted;
+    }
+
+    private static int[] recomputeEnds(Object[][] chunks, int[] previous, int from) {
+        int[] ends = new int[chunks.length];
+        System.arraycopy(previous, 0, ends, 0, from);
+        int total = from == 0 ? 0 : ends[from - 1];
+        for (int i = from; i < chunks.length; i++) {
+            total += chunks[i].length;
+            ends[i] = total;
+        }
+        return ends;
+    }
+}
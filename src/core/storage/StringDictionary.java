@@ -0,0 +1,122 @@
+package core.storage;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+
+/**
+ * Canonical instances for model attributes that repeat across many records,
+ * such as airlines and countries. Each distinct value gets a small int code,
+ * and every later occurrence reuses the first String instead of keeping its
+ * own copy on the heap.
+ */
+public class StringDictionary {
+
+    public enum Field {
+        PLANE_BRAND("Plane.brand"),
+        PLANE_MODEL("Plane.model"),
+        PLANE_AIRLINE("Plane.airline"),
+        PASSENGER_COUNTRY("Passenger.country"),
+        LOCATION_CITY("Location.airportCity"),
+        LOCATION_COUNTRY("Location.airportCountry");
+
+        private final String label;
+
+        Field(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final StringDictionary instance = new StringDictionary();
+
+    private final EnumMap<Field, FieldDictionary> fields;
+
+    private StringDictionary() {
+        this.fields = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) {
+            this.fields.put(field, new FieldDictionary());
+        }
+    }
+
+    public static StringDictionary getInstance() {
+        return instance;
+    }
+
+    public String canonicalize(Field field, String value) {
+        if (value == null) {
+            return null;
+        }
+        return this.fields.get(field).canonicalize(value);
+    }
+
+    public int encode(Field field, String value) {
+        return this.fields.get(field).encode(value);
+    }
+
+    public String decode(Field field, int code) {
+        FieldDictionary dictionary = this.fields.get(field);
+        synchronized (dictionary) {
+            return dictionary.values.get(code);
+        }
+    }
+
+    /**
+     * One row per field: label, occurrences seen, distinct values and an
+     * estimate of the heap bytes saved by sharing the repeated Strings.
+     */
+    public ArrayList<String[]> getReport() {
+        ArrayList<String[]> report = new ArrayList<>();
+        for (Field field : Field.values()) {
+            FieldDictionary dictionary = this.fields.get(field);
+            synchronized (dictionary) {
+                report.add(new String[]{
+                    field.getLabel(),
+                    String.valueOf(dictionary.occurrences),
+                    String.valueOf(dictionary.values.size()),
+                    String.valueOf(dictionary.bytesSaved)
+                });
+            }
+        }
+        return report;
+    }
+
+    // Shallow size of a compact String plus its backing array, with 8-byte alignment.
+    private static long estimateSize(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) < 256;
+        }
+        long array = 16 + (latin1 ? value.length() : 2L * value.length());
+        return 24 + ((array + 7) & ~7L);
+    }
+
+    private static class FieldDictionary {
+        private final HashMap<String, Integer> codes = new HashMap<>();
+        private final ArrayList<String> values = new ArrayList<>();
+        private long occurrences;
+        private long bytesSaved;
+
+        private synchronized String canonicalize(String value) {
+            return this.values.get(encode(value));
+        }
+
+        private synchronized int encode(String value) {
+            this.occurrences++;
+            Integer code = this.codes.get(value);
+            if (code != null) {
+                if (this.values.get(code) != value) {
+                    this.bytesSaved += estimateSize(value);
+                }
+                return code;
+            }
+            code = this.values.size();
+            this.values.add(value);
+            this.codes.put(value, code);
+            return code;
+        }
+    }
+}
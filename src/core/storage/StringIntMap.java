@@ -0,0 +1,104 @@
+package core.storage;
+
+/**
+ * Open-addressing map from strings to non-negative ints in two parallel
+ * arrays, so values are not boxed and there is no entry object per key.
+ * Removal shifts the following entries back, as in LongHashSet.
+ */
+class StringIntMap {
+
+    private String[] keys;
+    private int[] values;
+    private int size;
+
+    public StringIntMap() {
+        this.keys = new String[32];
+        this.values = new int[32];
+    }
+
+    // Returns -1 when the key is missing.
+    public int get(String key) {
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.keys[slot] != null) {
+            if (this.keys[slot].equals(key)) {
+                return this.values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public void put(String key, int value) {
+        if ((this.size + 1) * 2 > this.keys.length) {
+            rehash(this.keys.length * 2);
+        }
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.keys[slot] != null) {
+            if (this.keys[slot].equals(key)) {
+                this.values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        this.size++;
+    }
+
+    // Returns the removed value, or -1 when the key was missing.
+    public int remove(String key) {
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.keys[slot] == null || !this.keys[slot].equals(key)) {
+            if (this.keys[slot] == null) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int removed = this.values[slot];
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (this.keys[next] != null) {
+            int home = hash(this.keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                this.keys[hole] = this.keys[next];
+                this.values[hole] = this.values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        this.keys[hole] = null;
+        this.size--;
+        return removed;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    private void rehash(int capacity) {
+        String[] previousKeys = this.keys;
+        int[] previousValues = this.values;
+        this.keys = new String[capacity];
+        this.values = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < previousKeys.length; i++) {
+            if (previousKeys[i] != null) {
+                int slot = hash(previousKeys[i]) & mask;
+                while (this.keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = previousKeys[i];
+                this.values[slot] = previousValues[i];
+            }
+        }
+    }
+
+    // String hash codes of similar ids differ mostly in the low bits, so they are spread before masking.
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,880 @@
+package core.storage;
+
+import core.functions.PassengerManager;
+import core.functions.ReservationEngine;
+import core.functions.WaitlistEngine;
+import core.model.Flight;
+import core.model.Location;
+import core.model.Passenger;
+import core.model.Plane;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log of every mutation made through the controllers.
+ * Each record is [length][lsn][type][payload][crc32]; recovery replays the
+ * valid records on top of the loaded data and cuts off a torn tail.
+ * Changes are logged before they are applied; a change that is then
+ * rejected is voided with an abort record naming its sequence number.
+ */
+public class WriteAheadLog {
+
+    public enum SyncPolicy {
+        ALWAYS, INTERVAL, NEVER
+    }
+
+    private static final byte ADD_PLANE = 1;
+    private static final byte ADD_LOCATION = 2;
+    private static final byte ADD_PASSENGER = 3;
+    private static final byte UPDATE_PASSENGER = 4;
+    private static final byte ADD_FLIGHT = 5;
+    private static final byte RESCHEDULE = 6;
+    private static final byte BOOKING = 7;
+    private static final byte BOOKING_BATCH = 8;
+    private static final byte CANCELLATION = 9;
+    private static final byte CHANGE_PLANE = 10;
+    private static final byte ABORT = 11;
+    private static final byte RELOAD = 12;
+    private static final byte WAITLIST_ADD = 13;
+    private static final byte WAITLIST_REMOVE = 14;
+    private static final byte WAITLIST_PROMOTE = 15;
+
+    // What a reload record replaces; stored as its first byte.
+    private static final byte RELOAD_PLANES = 1;
+    private static final byte RELOAD_LOCATIONS = 2;
+    private static final byte RELOAD_PASSENGERS = 3;
+    private static final byte RELOAD_FLIGHTS = 4;
+
+    private static final int HEADER_SIZE = 4 + 8 + 1;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final int MAX_RELOAD_PART_SIZE = MAX_RECORD_SIZE / 2;
+    private static final long SYNC_INTERVAL_MILLIS = 1000;
+    private static final int COMPACTION_THRESHOLD = 10_000;
+
+    private static final WriteAheadLog instance = new WriteAheadLog();
+
+    private final ExecutorService compactor;
+    private final Object compaction;
+    private final ReentrantReadWriteLock changes;
+    private Path path;
+    private FileChannel channel;
+    private SyncPolicy policy;
+    private long nextLsn;
+    private long lastSync;
+    private int recordsSinceCompaction;
+    private boolean compactionScheduled;
+    // Bumped whenever the file is replaced or closed, so a compaction started on the old file is dropped.
+    private long generation;
+
+    private WriteAheadLog() {
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.compaction = new Object();
+        this.changes = new ReentrantReadWriteLock();
+        this.nextLsn = 1;
+    }
+
+    public static WriteAheadLog getInstance() {
+        return instance;
+    }
+
+    public int recover(Path path, SyncPolicy policy) throws IOException {
+        return recover(path, policy, 0);
+    }
+
+    /**
+     * Opens the log, replays every valid record newer than the given sequence
+     * number into the storages and leaves the log ready for appends. Returns
+     * the number of records applied.
+     */
+    public synchronized int recover(Path path, SyncPolicy policy, long afterLsn) throws IOException {
+        close();
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.path = path;
+        this.policy = policy;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int applied = 0;
+        long validEnd = 0;
+        this.nextLsn = Math.max(this.nextLsn, afterLsn + 1);
+        ArrayList<LogRecord> records = readRecords(this.channel, 0, this.channel.size());
+        LongHashSet aborted = abortedLsns(records);
+        ArrayList<LogRecord> group = new ArrayList<>();
+        for (LogRecord record : records) {
+            if (record.type != RELOAD && !group.isEmpty()) {
+                group.clear();
+            }
+            if (record.type == RELOAD) {
+                group.add(record);
+                if (isLastPart(record)) {
+                    if (record.lsn > afterLsn && !aborted.contains(record.lsn)) {
+                        applyReload(group);
+                        applied++;
+                    }
+                    group.clear();
+                }
+            } else if (record.lsn > afterLsn && record.type != ABORT && !aborted.contains(record.lsn)) {
+                apply(record);
+                applied++;
+            }
+            if (group.isEmpty()) {
+                validEnd = record.end;
+            }
+            this.nextLsn = Math.max(this.nextLsn, record.lsn + 1);
+        }
+        if (validEnd < this.channel.size()) {
+            // A reload whose last part never reached the disk is cut off with the torn tail.
+            System.err.println("Warning: discarding " + (this.channel.size() - validEnd) + " bytes of incomplete log records ⚠️");
+            this.channel.truncate(validEnd);
+        }
+        this.channel.position(validEnd);
+        this.recordsSinceCompaction = applied;
+        this.lastSync = System.currentTimeMillis();
+        return applied;
+    }
+
+    public synchronized long getLastLsn() {
+        return this.nextLsn - 1;
+    }
+
+    /**
+     * A change holds this from before its record is written until it has
+     * been applied or aborted. Changes run side by side; only a capture for
+     * a checkpoint waits for them.
+     */
+    public void beginChange() {
+        this.changes.readLock().lock();
+    }
+
+    public void endChange() {
+        this.changes.readLock().unlock();
+    }
+
+    // Runs the copy while no logged change is waiting to be applied and returns the last sequence number it holds.
+    public long capture(Runnable copy) {
+        this.changes.writeLock().lock();
+        try {
+            long lsn = getLastLsn();
+            copy.run();
+            return lsn;
+        } finally {
+            this.changes.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops every record up to the given sequence number once a snapshot
+     * holding them has been written. Records appended after the snapshot was
+     * taken are kept.
+     */
+    public synchronized void checkpoint(long lsn) throws IOException {
+        if (this.channel == null) {
+            return;
+        }
+        ArrayList<LogRecord> remaining = new ArrayList<>();
+        for (LogRecord record : readRecords(this.channel, 0, this.channel.size())) {
+            if (record.lsn > lsn) {
+                remaining.add(record);
+            }
+        }
+        Path rewritten = writeSibling(this.path, ".checkpoint", remaining);
+        replaceWith(rewritten, remaining.size());
+    }
+
+    public synchronized boolean isOpen() {
+        return this.channel != null;
+    }
+
+    public synchronized void close() throws IOException {
+        this.generation++;
+        if (this.channel != null) {
+            this.channel.force(false);
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+    public long logAddPlane(Plane plane) throws IOException {
+        return append(ADD_PLANE, out -> writePlane(out, plane));
+    }
+
+    public long logAddLocation(Location location) throws IOException {
+        return append(ADD_LOCATION, out -> writeLocation(out, location));
+    }
+
+    public long logAddPassenger(Passenger passenger) throws IOException {
+        return append(ADD_PASSENGER, out -> writePassenger(out, passenger));
+    }
+
+    public long logUpdatePassenger(Passenger passenger) throws IOException {
+        return append(UPDATE_PASSENGER, out -> writePassenger(out, passenger));
+    }
+
+    public long logAddFlight(Flight flight) throws IOException {
+        return append(ADD_FLIGHT, out -> writeFlight(out, flight));
+    }
+
+    // Reschedules are logged with the absolute departure date so that replaying them twice is harmless.
+    public long logReschedule(Flight flight, LocalDateTime departureDate) throws IOException {
+        return append(RESCHEDULE, out -> {
+            out.writeUTF(flight.getId());
+            out.writeLong(departureDate.toEpochSecond(ZoneOffset.UTC));
+        });
+    }
+
+    public long logBooking(Passenger passenger, Flight flight) throws IOException {
+        return append(BOOKING, out -> {
+            out.writeLong(passenger.getId());
+            out.writeUTF(flight.getId());
+        });
+    }
+
+    public long logCancellation(Passenger passenger, Flight flight) throws IOException {
+        return append(CANCELLATION, out -> {
+            out.writeLong(passenger.getId());
+            out.writeUTF(flight.getId());
+        });
+    }
+
+    public long logChangePlane(Flight flight, Plane plane) throws IOException {
+        return append(CHANGE_PLANE, out -> {
+            out.writeUTF(flight.getId());
+            out.writeUTF(plane.getId());
+        });
+    }
+
+    public long logWaitlistAdd(Passenger passenger, Flight flight, WaitlistEngine.Priority priority) throws IOException {
+        return append(WAITLIST_ADD, out -> {
+            out.writeLong(passenger.getId());
+            out.writeUTF(flight.getId());
+            out.writeByte(priority.ordinal());
+        });
+    }
+
+    public long logWaitlistRemove(Passenger passenger, Flight flight) throws IOException {
+        return append(WAITLIST_REMOVE, out -> {
+            out.writeLong(passenger.getId());
+            out.writeUTF(flight.getId());
+        });
+    }
+
+    // A promotion books the passenger and takes them off the waitlist in one record.
+    public long logWaitlistPromote(Passenger passenger, Flight flight) throws IOException {
+        return append(WAITLIST_PROMOTE, out -> {
+            out.writeLong(passenger.getId());
+            out.writeUTF(flight.getId());
+        });
+    }
+
+    // A group booking is one record, so recovery applies either all of it or none of it.
+    public long logBookings(Collection<Passenger> passengers, Collection<Flight> flights) throws IOException {
+        return append(BOOKING_BATCH, out -> {
+            out.writeInt(flights.size());
+            for (Flight flight : flights) {
+                out.writeUTF(flight.getId());
+            }
+            out.writeInt(passengers.size());
+            for (Passenger passenger : passengers) {
+                out.writeLong(passenger.getId());
+            }
+        });
+    }
+
+    /**
+     * Logs what a reload of a data file replaced and removed. A large reload
+     * is split into parts written back to back; recovery applies it only
+     * once its last part is on disk, and an abort names the last part.
+     */
+    public long logReloadPlanes(Collection<Plane> upserts, Collection<String> removedIds) throws IOException {
+        return appendReload(RELOAD_PLANES, upserts, WriteAheadLog::writePlane, removedIds);
+    }
+
+    public long logReloadLocations(Collection<Location> upserts, Collection<String> removedIds) throws IOException {
+        return appendReload(RELOAD_LOCATIONS, upserts, WriteAheadLog::writeLocation, removedIds);
+    }
+
+    public long logReloadPassengers(Collection<Passenger> upserts, Collection<String> removedIds) throws IOException {
+        return appendReload(RELOAD_PASSENGERS, upserts, WriteAheadLog::writePassenger, removedIds);
+    }
+
+    public long logReloadFlights(Collection<Flight> upserts, Collection<String> removedIds) throws IOException {
+        return appendReload(RELOAD_FLIGHTS, upserts, WriteAheadLog::writeFlight, removedIds);
+    }
+
+    // Voids a logged change whose apply was rejected; sequence numbers from a closed log are ignored.
+    public void abort(long lsn) throws IOException {
+        if (lsn > 0) {
+            append(ABORT, out -> out.writeLong(lsn));
+        }
+    }
+
+    /**
+     * Rewrites the log so that it holds one record per surviving change:
+     * the latest state of each passenger, the latest departure date of each
+     * flight and each booking once. Recovery then scales with the net changes.
+     * The records are read and compacted without holding the log, so appends
+     * carry on meanwhile; the ones that arrive are copied over at the end.
+     */
+    public void compact() throws IOException {
+        synchronized (this.compaction) {
+            Path source;
+            long end;
+            long started;
+            synchronized (this) {
+                if (this.channel == null) {
+                    return;
+                }
+                source = this.path;
+                end = this.channel.position();
+                started = this.generation;
+            }
+            ArrayList<LogRecord> compacted;
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                compacted = compactRecords(readRecords(in, 0, end));
+            }
+            Path rewritten = writeSibling(source, ".compact", compacted);
+            synchronized (this) {
+                if (this.channel == null || this.generation != started) {
+                    Files.deleteIfExists(rewritten);
+                    return;
+                }
+                ArrayList<LogRecord> tail = readRecords(this.channel, end, this.channel.position());
+                try (FileChannel out = FileChannel.open(rewritten, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    for (LogRecord record : tail) {
+                        write(out, record.lsn, record.type, record.payload);
+                    }
+                    out.force(true);
+                }
+                replaceWith(rewritten, tail.size());
+            }
+        }
+    }
+
+    /**
+     * A reload replaces whole entities, so it is kept as written and in
+     * place; the records between reloads are compacted on their own.
+     */
+    private static ArrayList<LogRecord> compactRecords(ArrayList<LogRecord> records) throws IOException {
+        LongHashSet aborted = abortedLsns(records);
+        ArrayList<LogRecord> compacted = new ArrayList<>();
+        ArrayList<LogRecord> segment = new ArrayList<>();
+        ArrayList<LogRecord> group = new ArrayList<>();
+        for (LogRecord record : records) {
+            if (record.type != RELOAD) {
+                group.clear();
+                segment.add(record);
+                continue;
+            }
+            group.add(record);
+            if (isLastPart(record)) {
+                if (!aborted.contains(record.lsn)) {
+                    compacted.addAll(compactSegment(segment, aborted));
+                    segment.clear();
+                    compacted.addAll(group);
+                }
+                group.clear();
+            }
+        }
+        compacted.addAll(compactSegment(segment, aborted));
+        return compacted;
+    }
+
+    private static ArrayList<LogRecord> compactSegment(ArrayList<LogRecord> records, LongHashSet aborted) throws IOException {
+        LinkedHashMap<String, LogRecord> latest = new LinkedHashMap<>();
+        LinkedHashMap<String, LogRecord> lastReschedule = new LinkedHashMap<>();
+        LinkedHashMap<String, LogRecord> lastPlane = new LinkedHashMap<>();
+        LinkedHashMap<String, LogRecord> bookings = new LinkedHashMap<>();
+        LinkedHashMap<String, LogRecord> waitlists = new LinkedHashMap<>();
+        for (LogRecord record : records) {
+            // Aborts always follow the record they void, so both can go.
+            if (record.type == ABORT || aborted.contains(record.lsn)) {
+                continue;
+            }
+            DataInputStream in = record.input();
+            switch (record.type) {
+                case ADD_PLANE -> latest.putIfAbsent("plane:" + in.readUTF(), record);
+                case ADD_LOCATION -> latest.putIfAbsent("location:" + in.readUTF(), record);
+                case ADD_FLIGHT -> latest.putIfAbsent("flight:" + in.readUTF(), record);
+                case ADD_PASSENGER, UPDATE_PASSENGER -> {
+                    String key = "passenger:" + in.readLong();
+                    LogRecord previous = latest.get(key);
+                    byte type = previous != null && previous.type == ADD_PASSENGER ? ADD_PASSENGER : record.type;
+                    latest.put(key, new LogRecord(record.lsn, type, record.payload, record.end));
+                }
+                case RESCHEDULE -> lastReschedule.put(in.readUTF(), record);
+                case BOOKING -> bookings.putIfAbsent(in.readLong() + ":" + in.readUTF(), record);
+                case BOOKING_BATCH -> bookings.put("batch:" + record.lsn, record);
+                case CANCELLATION -> {
+                    // The booking may sit inside a batch record, so the cancellation itself is kept as well.
+                    String key = in.readLong() + ":" + in.readUTF();
+                    bookings.remove(key);
+                    bookings.put("cancel:" + record.lsn, record);
+                }
+                case CHANGE_PLANE -> lastPlane.put(in.readUTF(), record);
+                case WAITLIST_ADD -> waitlists.put(in.readLong() + ":" + in.readUTF(), record);
+                case WAITLIST_REMOVE -> {
+                    // A passenger waits at most once per flight, so a removal cancels out an add in the same segment.
+                    if (waitlists.remove(in.readLong() + ":" + in.readUTF()) == null) {
+                        waitlists.put("remove:" + record.lsn, record);
+                    }
+                }
+                case WAITLIST_PROMOTE -> {
+                    String key = in.readLong() + ":" + in.readUTF();
+                    bookings.putIfAbsent(key, record);
+                    // A later cancellation can drop the promotion, so an add from an earlier segment still needs its removal.
+                    if (waitlists.remove(key) == null) {
+                        waitlists.put("remove:" + record.lsn, new LogRecord(record.lsn, WAITLIST_REMOVE, record.payload, record.end));
+                    }
+                }
+                default -> throw new IOException("Unknown log record type " + record.type);
+            }
+        }
+        ArrayList<LogRecord> compacted = new ArrayList<>();
+        for (byte type : new byte[]{ADD_PLANE, ADD_LOCATION, ADD_PASSENGER, UPDATE_PASSENGER, ADD_FLIGHT}) {
+            for (LogRecord record : latest.values()) {
+                if (record.type == type) {
+                    compacted.add(record);
+                }
+            }
+        }
+        compacted.addAll(lastReschedule.values());
+        compacted.addAll(lastPlane.values());
+        compacted.addAll(bookings.values());
+        compacted.addAll(waitlists.values());
+        return compacted;
+    }
+
+    private static LongHashSet abortedLsns(ArrayList<LogRecord> records) throws IOException {
+        LongHashSet aborted = new LongHashSet();
+        for (LogRecord record : records) {
+            if (record.type == ABORT) {
+                aborted.add(record.input().readLong());
+            }
+        }
+        return aborted;
+    }
+
+    private static Path writeSibling(Path path, String suffix, ArrayList<LogRecord> records) throws IOException {
+        Path rewritten = path.resolveSibling(path.getFileName() + suffix);
+        try (FileChannel out = FileChannel.open(rewritten, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (LogRecord record : records) {
+                write(out, record.lsn, record.type, record.payload);
+            }
+            out.force(true);
+        }
+        return rewritten;
+    }
+
+    // Atomically moves the rewritten file over the log; the log is reopened even if the move fails.
+    private void replaceWith(Path rewritten, int recordsSinceCompaction) throws IOException {
+        this.generation++;
+        this.channel.close();
+        try {
+            Files.move(rewritten, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.recordsSinceCompaction = recordsSinceCompaction;
+        } finally {
+            this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.channel.position(this.channel.size());
+        }
+    }
+
+    // Holding the log keeps the parts of one reload next to each other; returns the last part's sequence number.
+    private synchronized <T> long appendReload(byte kind, Collection<T> upserts, EntityWriter<T> entityWriter, Collection<String> removedIds) throws IOException {
+        if (this.channel == null) {
+            return 0;
+        }
+        ArrayList<byte[]> items = new ArrayList<>();
+        for (T upsert : upserts) {
+            items.add(encode(out -> {
+                out.writeBoolean(true);
+                entityWriter.write(out, upsert);
+            }));
+        }
+        for (String id : removedIds) {
+            items.add(encode(out -> {
+                out.writeBoolean(false);
+                out.writeUTF(id);
+            }));
+        }
+        long lsn = 0;
+        int next = 0;
+        do {
+            int first = next;
+            int size = 0;
+            while (next < items.size() && (next == first || size + items.get(next).length <= MAX_RELOAD_PART_SIZE)) {
+                size += items.get(next++).length;
+            }
+            boolean last = next == items.size();
+            int end = next;
+            lsn = append(RELOAD, out -> {
+                out.writeByte(kind);
+                out.writeBoolean(last);
+                out.writeInt(end - first);
+                for (int i = first; i < end; i++) {
+                    out.write(items.get(i));
+                }
+            });
+        } while (next < items.size());
+        return lsn;
+    }
+
+    private static byte[] encode(RecordWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writer.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // Returns the sequence number of the record, or 0 when the log is not open.
+    private synchronized long append(byte type, RecordWriter writer) throws IOException {
+        if (this.channel == null) {
+            return 0;
+        }
+        byte[] payload = encode(writer);
+        long lsn = this.nextLsn++;
+        write(this.channel, lsn, type, payload);
+        sync();
+        if (++this.recordsSinceCompaction >= COMPACTION_THRESHOLD && !this.compactionScheduled) {
+            this.compactionScheduled = true;
+            this.compactor.execute(this::compactInBackground);
+        }
+        return lsn;
+    }
+
+    private void compactInBackground() {
+        try {
+            compact();
+        } catch (IOException e) {
+            System.err.println("Warning: could not compact the log - " + e.getMessage() + " ⚠️");
+        } finally {
+            synchronized (this) {
+                this.compactionScheduled = false;
+            }
+        }
+    }
+
+    private void sync() throws IOException {
+        long now = System.currentTimeMillis();
+        if (this.policy == SyncPolicy.ALWAYS || (this.policy == SyncPolicy.INTERVAL && now - this.lastSync >= SYNC_INTERVAL_MILLIS)) {
+            this.channel.force(false);
+            this.lastSync = now;
+        }
+    }
+
+    private static void write(FileChannel channel, long lsn, byte type, byte[] payload) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length + 4);
+        buffer.putInt(payload.length);
+        buffer.putLong(lsn);
+        buffer.put(type);
+        buffer.put(payload);
+        buffer.putInt(checksum(lsn, type, payload));
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Reads the records between the two offsets and stops at the first incomplete or corrupt one.
+    private static ArrayList<LogRecord> readRecords(FileChannel channel, long from, long size) throws IOException {
+        ArrayList<LogRecord> records = new ArrayList<>();
+        long position = from;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (position + HEADER_SIZE + 4 <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            long lsn = header.getLong();
+            byte type = header.get();
+            if (length < 0 || length > MAX_RECORD_SIZE || position + HEADER_SIZE + length + 4 > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length + 4);
+            channel.read(body, position + HEADER_SIZE);
+            body.flip();
+            byte[] payload = new byte[length];
+            body.get(payload);
+            if (body.getInt() != checksum(lsn, type, payload)) {
+                break;
+            }
+            position += HEADER_SIZE + length + 4;
+            records.add(new LogRecord(lsn, type, payload, position));
+        }
+        return records;
+    }
+
+    private static int checksum(long lsn, byte type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(9).putLong(lsn).put(type).array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void writePlane(DataOutputStream out, Plane plane) throws IOException {
+        out.writeUTF(plane.getId());
+        out.writeUTF(plane.getBrand());
+        out.writeUTF(plane.getModel());
+        out.writeInt(plane.getMaxCapacity());
+        out.writeUTF(plane.getAirline());
+    }
+
+    private static Plane readPlane(DataInputStream in) throws IOException {
+        StringDictionary dictionary = StringDictionary.getInstance();
+        return new Plane(in.readUTF(), dictionary.canonicalize(StringDictionary.Field.PLANE_BRAND, in.readUTF()), dictionary.canonicalize(StringDictionary.Field.PLANE_MODEL, in.readUTF()), in.readInt(), dictionary.canonicalize(StringDictionary.Field.PLANE_AIRLINE, in.readUTF()));
+    }
+
+    private static void writeLocation(DataOutputStream out, Location location) throws IOException {
+        out.writeUTF(location.getAirportId());
+        out.writeUTF(location.getAirportName());
+        out.writeUTF(location.getAirportCity());
+        out.writeUTF(location.getAirportCountry());
+        out.writeDouble(location.getAirportLatitude());
+        out.writeDouble(location.getAirportLongitude());
+    }
+
+    private static Location readLocation(DataInputStream in) throws IOException {
+        StringDictionary dictionary = StringDictionary.getInstance();
+        return new Location(in.readUTF(), in.readUTF(), dictionary.canonicalize(StringDictionary.Field.LOCATION_CITY, in.readUTF()), dictionary.canonicalize(StringDictionary.Field.LOCATION_COUNTRY, in.readUTF()), in.readDouble(), in.readDouble());
+    }
+
+    private static void writeFlight(DataOutputStream out, Flight flight) throws IOException {
+        out.writeUTF(flight.getId());
+        out.writeUTF(flight.getPlane().getId());
+        out.writeUTF(flight.getDepartureLocation().getAirportId());
+        out.writeBoolean(flight.getScaleLocation() != null);
+        if (flight.getScaleLocation() != null) {
+            out.writeUTF(flight.getScaleLocation().getAirportId());
+        }
+        out.writeUTF(flight.getArrivalLocation().getAirportId());
+        out.writeLong(flight.getDepartureDate().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(flight.getHoursDurationArrival());
+        out.writeInt(flight.getMinutesDurationArrival());
+        out.writeInt(flight.getHoursDurationScale());
+        out.writeInt(flight.getMinutesDurationScale());
+    }
+
+    // Returns null, after a warning, when the plane or a location is no longer stored.
+    private static Flight readFlight(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        Plane plane = PlaneStorage.getInstance().get(in.readUTF());
+        Location departure = LocationStorage.getInstance().get(in.readUTF());
+        Location scale = in.readBoolean() ? LocationStorage.getInstance().get(in.readUTF()) : null;
+        Location arrival = LocationStorage.getInstance().get(in.readUTF());
+        LocalDateTime departureDate = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+        int hoursArrival = in.readInt();
+        int minutesArrival = in.readInt();
+        int hoursScale = in.readInt();
+        int minutesScale = in.readInt();
+        if (plane == null || departure == null || arrival == null) {
+            System.err.println("Warning: skipping logged flight " + id + " with missing references ⚠️");
+            return null;
+        }
+        return scale == null
+                ? new Flight(id, plane, departure, arrival, departureDate, hoursArrival, minutesArrival)
+                : new Flight(id, plane, departure, scale, arrival, departureDate, hoursArrival, minutesArrival, hoursScale, minutesScale);
+    }
+
+    private static void writePassenger(DataOutputStream out, Passenger passenger) throws IOException {
+        out.writeLong(passenger.getId());
+        out.writeUTF(passenger.getFirstname());
+        out.writeUTF(passenger.getLastname());
+        out.writeLong(passenger.getBirthDate().toEpochDay());
+        out.writeInt(passenger.getCountryPhoneCode());
+        out.writeLong(passenger.getPhone());
+        out.writeUTF(passenger.getCountry());
+    }
+
+    private static Passenger readPassenger(DataInputStream in) throws IOException {
+        StringDictionary dictionary = StringDictionary.getInstance();
+        return new Passenger(in.readLong(), in.readUTF(), in.readUTF(), LocalDate.ofEpochDay(in.readLong()), in.readInt(), in.readLong(), dictionary.canonicalize(StringDictionary.Field.PASSENGER_COUNTRY, in.readUTF()));
+    }
+
+    private static void apply(LogRecord record) throws IOException {
+        DataInputStream in = record.input();
+        switch (record.type) {
+            case ADD_PLANE -> PlaneStorage.getInstance().add(readPlane(in));
+            case ADD_LOCATION -> LocationStorage.getInstance().add(readLocation(in));
+            case ADD_PASSENGER -> PassengerStorage.getInstance().add(readPassenger(in));
+            case UPDATE_PASSENGER -> PassengerStorage.getInstance().update(readPassenger(in));
+            case ADD_FLIGHT -> {
+                Flight flight = readFlight(in);
+                if (flight != null) {
+                    FlightStorage.getInstance().add(flight);
+                }
+            }
+            case RESCHEDULE -> {
+                Flight flight = FlightStorage.getInstance().get(in.readUTF());
+                LocalDateTime departureDate = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+                if (flight != null) {
+                    FlightStorage.getInstance().reschedule(flight, departureDate);
+                }
+            }
+            case BOOKING -> {
+                Passenger passenger = PassengerStorage.getInstance().get(in.readLong());
+                Flight flight = FlightStorage.getInstance().get(in.readUTF());
+                if (passenger != null && flight != null && !BookingStore.getInstance().isBooked(flight, passenger)) {
+                    new PassengerManager().addPassenger(flight, passenger);
+                }
+            }
+            case WAITLIST_ADD -> {
+                Passenger passenger = PassengerStorage.getInstance().get(in.readLong());
+                Flight flight = FlightStorage.getInstance().get(in.readUTF());
+                WaitlistEngine.Priority priority = WaitlistEngine.Priority.values()[in.readByte()];
+                if (passenger != null && flight != null) {
+                    WaitlistEngine.getInstance().restore(flight, passenger, priority);
+                }
+            }
+            case WAITLIST_REMOVE -> {
+                Passenger passenger = PassengerStorage.getInstance().get(in.readLong());
+                Flight flight = FlightStorage.getInstance().get(in.readUTF());
+                if (passenger != null && flight != null) {
+                    WaitlistEngine.getInstance().restoreRemoval(flight, passenger);
+                }
+            }
+            case WAITLIST_PROMOTE -> {
+                Passenger passenger = PassengerStorage.getInstance().get(in.readLong());
+                Flight flight = FlightStorage.getInstance().get(in.readUTF());
+                if (passenger != null && flight != null) {
+                    WaitlistEngine.getInstance().restoreRemoval(flight, passenger);
+                    if (!BookingStore.getInstance().isBooked(flight, passenger)) {
+                        new PassengerManager().addPassenger(flight, passenger);
+                    }
+                }
+            }
+            case BOOKING_BATCH -> applyBookings(in);
+            case CANCELLATION -> {
+                Passenger passenger = PassengerStorage.getInstance().get(in.readLong());
+                Flight flight = FlightStorage.getInstance().get(in.readUTF());
+                if (passenger != null && flight != null) {
+                    ReservationEngine.getInstance().cancel(flight, passenger);
+                }
+            }
+            case CHANGE_PLANE -> {
+                Flight flight = FlightStorage.getInstance().get(in.readUTF());
+                Plane plane = PlaneStorage.getInstance().get(in.readUTF());
+                if (flight != null && plane != null && flight.getPlane() != plane) {
+                    FlightStorage.getInstance().changePlane(flight, plane);
+                }
+            }
+            default -> throw new IOException("Unknown log record type " + record.type);
+        }
+    }
+
+    private static void applyBookings(DataInputStream in) throws IOException {
+        ArrayList<Flight> flights = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            Flight flight = FlightStorage.getInstance().get(in.readUTF());
+            if (flight != null) {
+                flights.add(flight);
+            }
+        }
+        ArrayList<Passenger> passengers = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            Passenger passenger = PassengerStorage.getInstance().get(in.readLong());
+            if (passenger != null) {
+                passengers.add(passenger);
+            }
+        }
+        // Pairs that are already booked are skipped so that replaying the record twice is harmless.
+        for (Flight flight : flights) {
+            for (Passenger passenger : passengers) {
+                if (!BookingStore.getInstance().isBooked(flight, passenger)) {
+                    new PassengerManager().addPassenger(flight, passenger);
+                }
+            }
+        }
+    }
+
+    // Reads every part of a reload and applies it the way the reloader did, as one change per storage.
+    private static void applyReload(ArrayList<LogRecord> parts) throws IOException {
+        byte kind = parts.get(0).payload[0];
+        ArrayList<Plane> planes = new ArrayList<>();
+        ArrayList<Location> locations = new ArrayList<>();
+        ArrayList<Passenger> passengers = new ArrayList<>();
+        ArrayList<Flight> flights = new ArrayList<>();
+        ArrayList<String> removedIds = new ArrayList<>();
+        for (LogRecord part : parts) {
+            DataInputStream in = part.input();
+            in.readByte();
+            in.readBoolean();
+            for (int i = in.readInt(); i > 0; i--) {
+                if (!in.readBoolean()) {
+                    removedIds.add(in.readUTF());
+                    continue;
+                }
+                switch (kind) {
+                    case RELOAD_PLANES -> planes.add(readPlane(in));
+                    case RELOAD_LOCATIONS -> locations.add(readLocation(in));
+                    case RELOAD_PASSENGERS -> passengers.add(readPassenger(in));
+                    case RELOAD_FLIGHTS -> {
+                        Flight flight = readFlight(in);
+                        if (flight != null) {
+                            flights.add(flight);
+                        }
+                    }
+                    default -> throw new IOException("Unknown reload kind " + kind);
+                }
+            }
+        }
+        switch (kind) {
+            case RELOAD_PLANES -> DataReloader.applyPlanes(PlaneStorage.getInstance(), FlightStorage.getInstance(), planes, removedIds);
+            case RELOAD_LOCATIONS -> DataReloader.applyLocations(LocationStorage.getInstance(), FlightStorage.getInstance(), locations, removedIds);
+            case RELOAD_PASSENGERS -> PassengerStorage.getInstance().applyChanges(passengers, removedIds);
+            default -> FlightStorage.getInstance().applyChanges(flights, removedIds);
+        }
+    }
+
+    private static boolean isLastPart(LogRecord record) {
+        return record.payload[1] != 0;
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private interface EntityWriter<T> {
+        void write(DataOutputStream out, T entity) throws IOException;
+    }
+
+    private static class LogRecord {
+        private final long lsn;
+        private final byte type;
+        private final byte[] payload;
+        private final long end;
+
+        private LogRecord(long lsn, byte type, byte[] payload, long end) {
+            this.lsn = lsn;
+            this.type = type;
+            this.payload = payload;
+            this.end = end;
+        }
+
+        private DataInputStream input() {
+            return new DataInputStream(new ByteArrayInputStream(this.payload));
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package core.view;
 
 import com.formdev.flatlaf.FlatDarkLaf;
+import core.controller.DataController;
 import core.controller.FlightController;
 import core.controller.LocationController;
 import core.controller.PassengerController;
 import core.controller.PlaneController;
 import core.responses.Response;
+import core.responses.Status;
 import core.model.Flight;
 import core.model.Location;
 import core.model.Passenger;
@@ -14,6 +16,7 @@ import core.storage.FlightStorage;
 import core.storage.LocationStorage;
 import core.storage.PassengerStorage;
 import core.storage.PlaneStorage;
+import core.design.observer.EntityTableModel;
 import core.design.observer.FlightComboBoxObserver;
 import core.design.observer.FlightTableObserver;
 import core.design.observer.LocationComboBoxObserver;
@@ -25,12 +28,12 @@ import core.design.observer.PlaneComboBoxObserver;
 import core.design.observer.PlaneTableObserver;
 import core.design.observer.UserManager;
 import java.awt.Color;
+import java.awt.Cursor;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
-import java.util.ArrayList;
+import java.util.List;
 import javax.swing.JOptionPane;
 import javax.swing.UIManager;
-import javax.swing.table.DefaultTableModel;
 
 public class AirportFrame extends javax.swing.JFrame {
 
@@ -38,16 +41,27 @@ public class AirportFrame extends javax.swing.JFrame {
 
     private UserManager userManager;
 
+    private ControllerExecutor controllerExecutor;
+
+    private PassengerTableObserver passengerTableObserver;
+    private FlightTableObserver flightTableObserver;
+    private PlaneTableObserver planeTableObserver;
+    private LocationTableObserver locationTableObserver;
+    private PassengerFlightTableObserver passengerFlightTableObserver;
+
     public AirportFrame() {
         initComponents();
 
+        controllerExecutor = new ControllerExecutor(inFlight -> setCursor(Cursor.getPredefinedCursor(inFlight > 0 ? Cursor.WAIT_CURSOR : Cursor.DEFAULT_CURSOR)));
         initializeObservers();
-        loadData();
-        retrieveAllDataFromStorage();
-        PassengerFlightTableObserver passengerFlights = new PassengerFlightTableObserver((DefaultTableModel) MyFlightsTab.getModel());
+        // Loading runs off the EDT; the observers fill the tables and combo boxes from its notifications.
+        // Choosing a role opens the tabs that change data, so it waits until the load is done.
+        setRoleSelectionEnabled(false);
+        controllerExecutor.submit(this::loadData, response -> setRoleSelectionEnabled(true));
+        passengerFlightTableObserver = new PassengerFlightTableObserver(MyFlightsTab);
         userManager = UserManager.getInstance();
-        PassengerStorage.getInstance().addObserver(passengerFlights);
-        userManager.addObserver(passengerFlights);
+        PassengerStorage.getInstance().addObserver(passengerFlightTableObserver);
+        userManager.addObserver(passengerFlightTableObserver);
         userListener();
         this.setBackground(new Color(0, 0, 0, 0));
         this.setLocationRelativeTo(null);
@@ -59,37 +73,31 @@ public class AirportFrame extends javax.swing.JFrame {
         this.blockPanels();
     }
 
-    private void loadData() {
-        Response response = PlaneController.loadPlanesFromJson("json/planes.json");
-        response = PassengerController.loadPassengersFromJson("json/passengers.json");
-        response = LocationController.loadLocationsFromJson("json/locations.json");
-        response = FlightController.loadFlightsFromJson("json/flights.json");
+    private Response loadData() {
+        Response response = DataController.loadSnapshot("data/airport.snapshot");
+        long snapshotLsn = (long) response.getObject();
+        if (response.getStatus() != Status.OK) {
+            response = DataController.loadAllFromJson("json/planes.json", "json/passengers.json", "json/locations.json", "json/flights.json");
+        }
+        response = DataController.recoverFromLog("data/airport.wal", snapshotLsn);
+        response = DataController.watchJsonFiles("json/planes.json", "json/passengers.json", "json/locations.json", "json/flights.json");
+        return response;
     }
 
-    private void retrieveAllDataFromStorage() {
-        Response response = PlaneController.getAllPlanes();
-        response = PassengerController.getAllPassengers();
-        response = LocationController.getAllLocations();
-        for (Location l : (ArrayList<Location>) response.getObject()) {
-            this.ArrivalSelection.addItem(l.getAirportId());
-            this.DepartureSelection.addItem(l.getAirportId());
-            this.ScaleSelection.addItem(l.getAirportId());
-        }
-        response = FlightController.getAllFlights();
-        for (Flight f : (ArrayList<Flight>) response.getObject()) {
-            this.FlightSelection.addItem(f.getId());
-            this.Id4.addItem(f.getId());
-        }
+    private void setRoleSelectionEnabled(boolean enabled) {
+        Admin.setEnabled(enabled);
+        User.setEnabled(enabled);
+        UserSelection.setEnabled(enabled);
     }
 
     private void initializeObservers() {
-        PassengerTableObserver passengerTableObserver = new PassengerTableObserver((DefaultTableModel) PassengersTab.getModel());
+        passengerTableObserver = new PassengerTableObserver(PassengersTab);
         PassengerStorage.getInstance().addObserver(passengerTableObserver);
-        FlightTableObserver flightTableObserver = new FlightTableObserver((DefaultTableModel) FlightsTab.getModel());
+        flightTableObserver = new FlightTableObserver(FlightsTab);
         FlightStorage.getInstance().addObserver(flightTableObserver);
-        PlaneTableObserver planeTableObserver = new PlaneTableObserver((DefaultTableModel) PlanesTab.getModel());
+        planeTableObserver = new PlaneTableObserver(PlanesTab);
         PlaneStorage.getInstance().addObserver(planeTableObserver);
-        LocationTableObserver locationTableObserver = new LocationTableObserver((DefaultTableModel) LocationsTab.getModel());
+        locationTableObserver = new LocationTableObserver(LocationsTab);
         LocationStorage.getInstance().addObserver(locationTableObserver);
         PassengerComboBoxObserver passengerComboBoxObserver = new PassengerComboBoxObserver(UserSelection);
         PassengerStorage.getInstance().addObserver(passengerComboBoxObserver);
@@ -159,28 +167,29 @@ public class AirportFrame extends javax.swing.JFrame {
     }
 
     private void changePassenger(String passengerId) {
-        Response response = PassengerController.changeUser(passengerId);
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-            User.setSelected(false);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-            User.setSelected(false);
-        } else {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-            if (Admin.isSelected()) {
-                Admin.setSelected(false);
-            }
-            for (int i = 1; i < jTabbedPane1.getTabCount(); i++) {
-                jTabbedPane1.setEnabledAt(i, false);
+        controllerExecutor.submit("user", () -> PassengerController.changeUser(passengerId), response -> {
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+                User.setSelected(false);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+                User.setSelected(false);
+            } else {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+                if (Admin.isSelected()) {
+                    Admin.setSelected(false);
+                }
+                for (int i = 1; i < jTabbedPane1.getTabCount(); i++) {
+                    jTabbedPane1.setEnabledAt(i, false);
+                }
+                jTabbedPane1.setEnabledAt(9, true);
+                jTabbedPane1.setEnabledAt(5, true);
+                jTabbedPane1.setEnabledAt(6, true);
+                jTabbedPane1.setEnabledAt(7, true);
+                jTabbedPane1.setEnabledAt(11, true);
+                User.setSelected(true);
             }
-            jTabbedPane1.setEnabledAt(9, true);
-            jTabbedPane1.setEnabledAt(5, true);
-            jTabbedPane1.setEnabledAt(6, true);
-            jTabbedPane1.setEnabledAt(7, true);
-            jTabbedPane1.setEnabledAt(11, true);
-            User.setSelected(true);
-        }
+        });
     }
 
     /**
@@ -1549,25 +1558,26 @@ public class AirportFrame extends javax.swing.JFrame {
         String phone = Phone2.getText();
         String country = Country.getText();
 
-        Response response = PassengerController.addPassenger(id, firstname, lastname, year, month, day, phoneCode, phone, country);
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-
-            Phone1.setText(""); // phoneCode
-            Id1.setText(""); // id
-            Birthdate1.setText(""); // year
-            Country.setText(""); // country
-            Phone2.setText(""); // phone
-            LastName1.setText(""); // lastname
-            Name1.setText(""); // firstname
-
-            MONTH.setSelectedIndex(0);
-            DAY.setSelectedIndex(0);
-        }
+        controllerExecutor.submit(() -> PassengerController.addPassenger(id, firstname, lastname, year, month, day, phoneCode, phone, country), response -> {
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+
+                Phone1.setText(""); // phoneCode
+                Id1.setText(""); // id
+                Birthdate1.setText(""); // year
+                Country.setText(""); // country
+                Phone2.setText(""); // phone
+                LastName1.setText(""); // lastname
+                Name1.setText(""); // firstname
+
+                MONTH.setSelectedIndex(0);
+                DAY.setSelectedIndex(0);
+            }
+        });
 
     }//GEN-LAST:event_RegisterButtonActionPerformed
 
@@ -1578,19 +1588,20 @@ public class AirportFrame extends javax.swing.JFrame {
         String model = Model1.getText();
         String maxCapacity = MaxCapacity.getText();
         String airline = Airline.getText();
-        Response response = PlaneController.addPlane(id, brand, model, maxCapacity, airline);
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-            Id2.setText(""); // id
-            Brand1.setText(""); // brand
-            Model1.setText(""); // model
-            MaxCapacity.setText(""); // maxCapacity
-            Airline.setText(""); // airline
-        }
+        controllerExecutor.submit(() -> PlaneController.addPlane(id, brand, model, maxCapacity, airline), response -> {
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+                Id2.setText(""); // id
+                Brand1.setText(""); // brand
+                Model1.setText(""); // model
+                MaxCapacity.setText(""); // maxCapacity
+                Airline.setText(""); // airline
+            }
+        });
 
     }//GEN-LAST:event_Create1ActionPerformed
 
@@ -1603,20 +1614,21 @@ public class AirportFrame extends javax.swing.JFrame {
         String latitude = AirportLatitude1.getText();
         String longitude = AirportLongitude1.getText();
 
-        Response response = LocationController.addLocation(id, name, city, country, longitude, latitude);
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-            AirportId1.setText("");
-            AirportName1.setText("");
-            AirportCity1.setText("");
-            AirportCountry1.setText("");
-            AirportLatitude1.setText("");
-            AirportLongitude1.setText("");
-        }
+        controllerExecutor.submit(() -> LocationController.addLocation(id, name, city, country, longitude, latitude), response -> {
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+                AirportId1.setText("");
+                AirportName1.setText("");
+                AirportCity1.setText("");
+                AirportCountry1.setText("");
+                AirportLatitude1.setText("");
+                AirportLongitude1.setText("");
+            }
+        });
 
     }//GEN-LAST:event_Create2ActionPerformed
 
@@ -1637,29 +1649,30 @@ public class AirportFrame extends javax.swing.JFrame {
         String hoursScale = HourSelect2.getItemAt(HourSelect2.getSelectedIndex());
         String minutesScale = MinuteSelect2.getItemAt(MinuteSelect2.getSelectedIndex());
 
-        Response response = FlightController.addFlight(id, plane, departure, arrival, year, month, day, hour, minutes, hoursArrival, minutesArrival, scale, hoursScale, minutesScale);
-
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-            Id3.setText("");
-            DepartureDateSelection.setText("");
-            PlaneSelection.setSelectedIndex(0);
-            DepartureSelection.setSelectedIndex(0);
-            ArrivalSelection.setSelectedIndex(0);
-            ScaleSelection.setSelectedIndex(0);
-            MonthSelect.setSelectedIndex(0);  // mes salida
-            DaySelect.setSelectedIndex(0);    // día salida
-            HourSelect3.setSelectedIndex(0);  // hora salida
-            MinuteSelect3.setSelectedIndex(0);    // minutos salida
-            HourSelect.setSelectedIndex(0);  // hora llegada
-            MinuteSelect.setSelectedIndex(0);    // minutos llegada
-            HourSelect2.setSelectedIndex(0);  // hora escala
-            MinuteSelect2.setSelectedIndex(0);    // minutos escala
-        }
+        controllerExecutor.submit(() -> FlightController.addFlight(id, plane, departure, arrival, year, month, day, hour, minutes, hoursArrival, minutesArrival, scale, hoursScale, minutesScale), response -> {
+
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+                Id3.setText("");
+                DepartureDateSelection.setText("");
+                PlaneSelection.setSelectedIndex(0);
+                DepartureSelection.setSelectedIndex(0);
+                ArrivalSelection.setSelectedIndex(0);
+                ScaleSelection.setSelectedIndex(0);
+                MonthSelect.setSelectedIndex(0);  // mes salida
+                DaySelect.setSelectedIndex(0);    // día salida
+                HourSelect3.setSelectedIndex(0);  // hora salida
+                MinuteSelect3.setSelectedIndex(0);    // minutos salida
+                HourSelect.setSelectedIndex(0);  // hora llegada
+                MinuteSelect.setSelectedIndex(0);    // minutos llegada
+                HourSelect2.setSelectedIndex(0);  // hora escala
+                MinuteSelect2.setSelectedIndex(0);    // minutos escala
+            }
+        });
 //        
     }//GEN-LAST:event_CreateButtonActionPerformed
 
@@ -1675,38 +1688,40 @@ public class AirportFrame extends javax.swing.JFrame {
         String phone = Number.getText();
         String country = Country2.getText();
 
-        Response response = PassengerController.updatePassenger(id, firstname, lastname, year, month, day, phoneCode, phone, country);
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-            Id6.setText(""); // id
-            FirstName.setText(""); // firstname
-            LastName.setText(""); // lastname
-            BirthDat.setText(""); // year
-            Number.setText(""); // phone
-            Prefix.setText(""); // phoneCode
-            Country2.setText(""); // country
-
-            MonthSelection2.setSelectedIndex(0);
-            DaySelection.setSelectedIndex(0);
-        }
+        controllerExecutor.submit(() -> PassengerController.updatePassenger(id, firstname, lastname, year, month, day, phoneCode, phone, country), response -> {
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+                Id6.setText(""); // id
+                FirstName.setText(""); // firstname
+                LastName.setText(""); // lastname
+                BirthDat.setText(""); // year
+                Number.setText(""); // phone
+                Prefix.setText(""); // phoneCode
+                Country2.setText(""); // country
+
+                MonthSelection2.setSelectedIndex(0);
+                DaySelection.setSelectedIndex(0);
+            }
+        });
     }
 
     private void addToFlightPassengerActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_addToFlightPassengerActionPerformed
         // TODO add your handling code here:
         String passengerId = Id5.getText();
         String flightId = FlightSelection.getItemAt(FlightSelection.getSelectedIndex());
-        Response response = PassengerController.addToFlight(passengerId, flightId);
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-        }
+        controllerExecutor.submit(() -> PassengerController.addToFlight(passengerId, flightId), response -> {
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+            }
+        });
     }//GEN-LAST:event_addToFlightPassengerActionPerformed
 
     private void DelayActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_DelayActionPerformed
@@ -1714,109 +1729,104 @@ public class AirportFrame extends javax.swing.JFrame {
         String flightId = Id4.getItemAt(Id4.getSelectedIndex());
         String hours = HoursSelection.getItemAt(HoursSelection.getSelectedIndex());
         String minutes = MinutesSelection.getItemAt(MinutesSelection.getSelectedIndex());
-        Response response = FlightController.delayFlight(flightId, hours, minutes);
-
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-        } else {
-
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-            Id4.setSelectedIndex(0);
-            HoursSelection.setSelectedIndex(0);  // horas de retraso
-            MinutesSelection.setSelectedIndex(0);  // minutos de retraso 
-        }
+        controllerExecutor.submit(() -> FlightController.delayFlight(flightId, hours, minutes), response -> {
+
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+            } else {
+
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+                Id4.setSelectedIndex(0);
+                HoursSelection.setSelectedIndex(0);  // horas de retraso
+                MinutesSelection.setSelectedIndex(0);  // minutos de retraso 
+            }
+        });
     }//GEN-LAST:event_DelayActionPerformed
 
     private void RefreshActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_RefreshActionPerformed
         // TODO add your handling code here:
 
         String passengerId = UserSelection.getItemAt(UserSelection.getSelectedIndex());
-        Response response = PassengerController.showPassengerFlights(passengerId);
-        DefaultTableModel model = (DefaultTableModel) MyFlightsTab.getModel();
-        model.setRowCount(0);
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-            for (Object[] data : (ArrayList<String[]>) response.getObject()) {
-                model.addRow(data);
+        controllerExecutor.submit("myFlights", () -> PassengerController.getPassengerFlights(passengerId), response -> {
+            EntityTableModel<Flight> model = passengerFlightTableObserver.getTableModel();
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+                model.reload(response.getList(Flight.class));
             }
-        }
+        });
     }//GEN-LAST:event_RefreshActionPerformed
 
     private void Refresh2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_Refresh2ActionPerformed
         // TODO add your handling code here:
-        DefaultTableModel model = (DefaultTableModel) PassengersTab.getModel();
-        model.setRowCount(0);
-        Response response = PassengerController.getPassengersWithFormat();
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-            for (Object[] data : (ArrayList<String[]>) response.getObject()) {
-                model.addRow(data);
+        EntityTableModel<Passenger> model = passengerTableObserver.getTableModel();
+        controllerExecutor.submit("passengers", PassengerController::getAllPassengers, response -> {
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+                model.reload(response.getList(Passenger.class));
             }
-        }
+        });
     }//GEN-LAST:event_Refresh2ActionPerformed
 
     private void Refresh3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_Refresh3ActionPerformed
         // TODO add your handling code here:
-        DefaultTableModel model = (DefaultTableModel) FlightsTab.getModel();
-        model.setRowCount(0);
-        Response response = FlightController.getFlightsWithFormat();
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-            for (Object[] data : (ArrayList<String[]>) response.getObject()) {
-                model.addRow(data);
+        EntityTableModel<Flight> model = flightTableObserver.getTableModel();
+        controllerExecutor.submit("flights", FlightController::getAllFlights, response -> {
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+                model.reload(response.getList(Flight.class));
             }
-        }
+        });
     }//GEN-LAST:event_Refresh3ActionPerformed
 
     private void Refresh4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_Refresh4ActionPerformed
         // TODO add your handling code here:
-        DefaultTableModel model = (DefaultTableModel) PlanesTab.getModel();
-        model.setRowCount(0);
-        Response response = PlaneController.getPlanesWithFormat();
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-            for (Object[] data : (ArrayList<String[]>) response.getObject()) {
-                model.addRow(data);
+        EntityTableModel<Plane> model = planeTableObserver.getTableModel();
+        controllerExecutor.submit("planes", PlaneController::getAllPlanes, response -> {
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+                model.reload(response.getList(Plane.class));
             }
-        }
+        });
     }//GEN-LAST:event_Refresh4ActionPerformed
 
     private void Refresh5ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_Refresh5ActionPerformed
         // TODO add your handling code here:
-        DefaultTableModel model = (DefaultTableModel) LocationsTab.getModel();
-        model.setRowCount(0);
-        Response response = LocationController.getLocationsWithFormat();
-        if (response.getStatus() >= 500) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
-        } else if (response.getStatus() >= 400) {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
-            for (Object[] data : (ArrayList<String[]>) response.getObject()) {
-                model.addRow(data);
+        EntityTableModel<Location> model = locationTableObserver.getTableModel();
+        controllerExecutor.submit("locations", LocationController::getAllLocations, response -> {
+            if (response.getStatus() >= 500) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.ERROR_MESSAGE);
+            } else if (response.getStatus() >= 400) {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Error " + response.getStatus(), JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(null, response.getMessage(), "Response Message", JOptionPane.INFORMATION_MESSAGE);
+                model.reload(response.getList(Location.class));
             }
-        }
+        });
     }//GEN-LAST:event_Refresh5ActionPerformed
 
     private void jButton13ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton13ActionPerformed
+        controllerExecutor.shutdown(5000);
+        DataController.stopWatchingJsonFiles();
+        DataController.saveSnapshot("data/airport.snapshot");
+        DataController.closeLog();
         System.exit(0);
     }//GEN-LAST:event_jButton13ActionPerformed
 
@@ -0,0 +1,121 @@
+package core.view;
+
+import core.responses.Response;
+import core.responses.Status;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs controller calls on a worker thread and hands their responses back on
+ * the event dispatch thread, so the window keeps repainting while storages
+ * load or rebuild. Calls run one at a time in the order they were submitted,
+ * as the user clicked, and none starts before the data has loaded. Submit
+ * and cancel from the EDT only.
+ */
+public class ControllerExecutor {
+
+    private final ExecutorService executor;
+    private final IntConsumer inFlightListener;
+    private final HashMap<String, Task> latest;
+    private int inFlight;
+
+    public ControllerExecutor(IntConsumer inFlightListener) {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "controller-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.inFlightListener = inFlightListener;
+        this.latest = new HashMap<>();
+    }
+
+    public Task submit(Supplier<Response> call, Consumer<Response> onDone) {
+        return submit(null, call, onDone);
+    }
+
+    /**
+     * A keyed call cancels the previous call with the same key, which suits
+     * refreshes where only the newest result matters.
+     */
+    public Task submit(String key, Supplier<Response> call, Consumer<Response> onDone) {
+        if (key != null && this.latest.containsKey(key)) {
+            this.latest.get(key).cancel();
+        }
+        Task task = new Task(key, onDone);
+        if (key != null) {
+            this.latest.put(key, task);
+        }
+        changeInFlight(1);
+        this.executor.execute(() -> {
+            Response response = null;
+            // Controllers are never interrupted: an interrupt would close the log's file channel mid-write.
+            try {
+                if (!task.cancelled) {
+                    response = call.get();
+                }
+            } catch (RuntimeException e) {
+                // Answered with the error response below.
+            } finally {
+                // Also reached when the call throws an Error, so the task always finishes and the cursor is restored.
+                Response result = response != null ? response : new Response("An unexpected error occurred. Please try again. 🚫", Status.INTERNAL_SERVER_ERROR);
+                SwingUtilities.invokeLater(() -> finish(task, result));
+            }
+        });
+        return task;
+    }
+
+    public int getInFlight() {
+        return this.inFlight;
+    }
+
+    // Lets running calls finish, such as a booking that is being logged, before the application exits.
+    public void shutdown(long timeoutMillis) {
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void finish(Task task, Response response) {
+        if (task.key != null && this.latest.get(task.key) == task) {
+            this.latest.remove(task.key);
+        }
+        changeInFlight(-1);
+        if (!task.cancelled) {
+            task.onDone.accept(response);
+        }
+    }
+
+    private void changeInFlight(int delta) {
+        this.inFlight += delta;
+        this.inFlightListener.accept(this.inFlight);
+    }
+
+    public static class Task {
+        private final String key;
+        private final Consumer<Response> onDone;
+        private volatile boolean cancelled;
+
+        private Task(String key, Consumer<Response> onDone) {
+            this.key = key;
+            this.onDone = onDone;
+        }
+
+        // A call that has not started is skipped; one that is running finishes but its response is dropped.
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package core.functions;
+
+import core.controller.PassengerController;
+import core.model.Flight;
+import core.model.Location;
+import core.model.Passenger;
+import core.model.Plane;
+import core.responses.Response;
+import core.responses.Status;
+import core.storage.BookingStore;
+import core.storage.FlightStorage;
+import core.storage.LocationStorage;
+import core.storage.PassengerStorage;
+import core.storage.PlaneStorage;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Booking throughput benchmark. Books through PassengerController.addToFlight,
+ * the same path the UI takes, with 1, 2, 4... threads up to the number of
+ * cores and prints the bookings per second of each run. It then fills one
+ * small flight from eight threads at once and exits with status 1 if the
+ * flight ends up overbooked:
+ *
+ *   java -cp build/classes:build/test/classes core.functions.ReservationBenchmark [bookings per thread]
+ */
+public class ReservationBenchmark {
+
+    private static final int FLIGHTS_PER_RUN = 64;
+    private static final int CONTENDED_SEATS = 50;
+    private static final int CONTENDED_THREADS = 8;
+
+    public static void main(String[] args) throws Exception {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxThreads = Integer.highestOneBit(Math.max(1, cores));
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(maxThreads, CONTENDED_THREADS));
+        try {
+            Plane plane = new Plane("BM00000", "b", "m", Integer.MAX_VALUE, "a");
+            PlaneStorage.getInstance().add(plane);
+            Location from = new Location("BMK", "a", "b", "c", 0, 0);
+            Location to = new Location("BML", "a", "b", "c", 0, 0);
+            LocationStorage.getInstance().add(from);
+            LocationStorage.getInstance().add(to);
+            ArrayList<Passenger> passengers = new ArrayList<>();
+            for (int i = 0; i < Math.max(maxThreads * perThread, CONTENDED_THREADS * CONTENDED_SEATS * 4); i++) {
+                passengers.add(new Passenger(700000000L + i, "Bench", "Mark", LocalDate.of(1990, 1, 1), 57, 3000000000L + i, "Colombia"));
+            }
+            PassengerStorage.getInstance().addAll(passengers);
+
+            System.out.println(cores + " cores, " + perThread + " bookings per thread");
+            run(executor, plane, from, to, 0, 1, perThread);
+            double base = 0;
+            int round = 1;
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                double rate = run(executor, plane, from, to, round++, threads, perThread);
+                base = base == 0 ? rate : base;
+                System.out.printf("%2d threads: %,10.0f bookings/s  x%.2f%n", threads, rate, rate / base);
+            }
+            contended(executor, from, to, CONTENDED_THREADS);
+        } catch (AssertionError e) {
+            System.out.println("FAILED: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Round 0 only warms the code up; every round books onto its own fresh flights.
+    private static double run(ExecutorService executor, Plane plane, Location from, Location to, int round, int threads, int perThread) throws Exception {
+        ArrayList<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < FLIGHTS_PER_RUN; i++) {
+            flights.add(new Flight(flightId(round, i), plane, from, to, LocalDateTime.of(2031, 1, 1, 0, 0).plusHours(round * FLIGHTS_PER_RUN + i), 1, 0));
+        }
+        FlightStorage.getInstance().addAll(flights);
+        int bookings = round == 0 ? Math.min(perThread, 2000) : perThread;
+        CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < bookings; i++) {
+                    String passengerId = String.valueOf(700000000L + (long) thread * perThread + i);
+                    Response response = PassengerController.addToFlight(passengerId, flights.get(i % FLIGHTS_PER_RUN).getId());
+                    check(response.getStatus() == Status.OK, "booking failed: " + response.getMessage());
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        int booked = 0;
+        for (Flight flight : flights) {
+            booked += BookingStore.getInstance().countPassengers(flight);
+        }
+        check(booked == threads * bookings, "round " + round + " stored " + booked + " of " + threads * bookings + " bookings");
+        return threads * bookings / seconds;
+    }
+
+    // Every thread books distinct passengers onto the same small flight; only its seats may be taken.
+    private static void contended(ExecutorService executor, Location from, Location to, int threads) throws Exception {
+        Plane small = new Plane("BM00001", "b", "m", CONTENDED_SEATS, "a");
+        PlaneStorage.getInstance().add(small);
+        Flight flight = new Flight("BZZ999", small, from, to, LocalDateTime.of(2032, 1, 1, 0, 0), 1, 0);
+        FlightStorage.getInstance().add(flight);
+        int perThread = CONTENDED_SEATS * 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    PassengerController.addToFlight(String.valueOf(700000000L + (long) thread * perThread + i), flight.getId());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        int booked = BookingStore.getInstance().countPassengers(flight);
+        check(booked == CONTENDED_SEATS, "contended flight has " + booked + " bookings for " + CONTENDED_SEATS + " seats");
+        check(ReservationEngine.getInstance().getReserved(flight) == CONTENDED_SEATS, "contended flight has " + ReservationEngine.getInstance().getReserved(flight) + " claimed seats");
+        System.out.println("contended flight: " + booked + " of " + threads * perThread + " requests booked, no overbooking");
+    }
+
+    private static String flightId(int round, int index) {
+        return "B" + (char) ('A' + round) + "Q" + String.format("%03d", index);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
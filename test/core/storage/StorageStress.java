@@ -0,0 +1,198 @@
+package core.storage;
+
+import core.model.Flight;
+import core.model.Location;
+import core.model.Passenger;
+import core.model.Plane;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency stress test for the storage singletons. Runs without a test
+ * framework and exits with status 1 on the first failed check:
+ *
+ *   java -cp build/classes:build/test/classes core.storage.StorageStress
+ */
+public class StorageStress {
+
+    private static final int THREADS = 8;
+
+    public static void main(String[] args) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            duplicateIds(executor);
+            noLostInserts(executor);
+            noLostUpdates(executor);
+            concurrentReschedules(executor);
+        } catch (AssertionError e) {
+            System.out.println("FAILED: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            executor.shutdownNow();
+        }
+        System.out.println("All storage stress checks passed.");
+    }
+
+    // Every thread adds the same ids; each id must be accepted exactly once.
+    private static void duplicateIds(ExecutorService executor) throws Exception {
+        int count = 20000;
+        AtomicInteger accepted = new AtomicInteger();
+        runAll(executor, thread -> {
+            for (int i = 0; i < count; i++) {
+                if (PassengerStorage.getInstance().add(passenger(i, "dup"))) {
+                    accepted.incrementAndGet();
+                }
+                PlaneStorage.getInstance().add(new Plane(planeId(i), "b", "m", 10, "a"));
+            }
+        });
+        check(accepted.get() == count, "duplicate passenger adds accepted " + accepted.get() + " of " + count);
+        checkPassengers(count);
+        check(PlaneStorage.getInstance().getAll().size() == count, "plane index has " + PlaneStorage.getInstance().getAll().size() + " planes");
+        check(PlaneStorage.getInstance().getSnapshot().size() == count, "plane snapshot has " + PlaneStorage.getInstance().getSnapshot().size() + " planes");
+        System.out.println("duplicate ids: ok");
+    }
+
+    // Threads add disjoint ids through add, addAll and applyChanges at the same time; none may go missing.
+    private static void noLostInserts(ExecutorService executor) throws Exception {
+        int perThread = 3000;
+        long base = 100000;
+        runAll(executor, thread -> {
+            long first = base + (long) thread * perThread;
+            ArrayList<Passenger> batch = new ArrayList<>();
+            for (int i = 0; i < perThread; i++) {
+                Passenger passenger = passenger(first + i, "insert");
+                if (i % 3 == 0) {
+                    PassengerStorage.getInstance().add(passenger);
+                } else if (i % 3 == 1) {
+                    batch.add(passenger);
+                } else {
+                    PassengerStorage.getInstance().applyChanges(List.of(passenger), List.of());
+                }
+            }
+            PassengerStorage.getInstance().addAll(batch);
+        });
+        checkPassengers(20000 + THREADS * perThread);
+        for (int thread = 0; thread < THREADS; thread++) {
+            for (int i = 0; i < perThread; i++) {
+                long id = base + (long) thread * perThread + i;
+                check(PassengerStorage.getInstance().get(id) != null, "passenger " + id + " was lost");
+            }
+        }
+        System.out.println("lost inserts: ok");
+    }
+
+    // Each thread updates its own passengers over and over; the last version of each must win everywhere.
+    private static void noLostUpdates(ExecutorService executor) throws Exception {
+        int rounds = 50;
+        int perThread = 200;
+        runAll(executor, thread -> {
+            for (int round = 0; round < rounds; round++) {
+                for (int i = 0; i < perThread; i++) {
+                    long id = (long) thread * perThread + i;
+                    PassengerStorage.getInstance().update(passenger(id, "round" + round));
+                }
+            }
+        });
+        String last = "round" + (rounds - 1);
+        for (long id = 0; id < (long) THREADS * perThread; id++) {
+            check(last.equals(PassengerStorage.getInstance().get(id).getLastname()), "update of passenger " + id + " was lost in the index");
+        }
+        for (Passenger passenger : PassengerStorage.getInstance().getSnapshot()) {
+            if (passenger.getId() < (long) THREADS * perThread) {
+                check(last.equals(passenger.getLastname()), "update of passenger " + passenger.getId() + " was lost in the snapshot");
+            }
+        }
+        System.out.println("lost updates: ok");
+    }
+
+    // Concurrent reschedules must keep the flight snapshot sorted and every flight in it exactly once.
+    private static void concurrentReschedules(ExecutorService executor) throws Exception {
+        int perThread = 250;
+        Location from = new Location("STRSS1", "a", "b", "c", 0, 0);
+        Location to = new Location("STRSS2", "a", "b", "c", 0, 0);
+        Plane plane = new Plane("ST00000", "b", "m", 100, "a");
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        ArrayList<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < THREADS * perThread; i++) {
+            flights.add(new Flight(String.format("STR%03d", i), plane, from, to, start.plusHours(i), 1, 0));
+        }
+        FlightStorage.getInstance().addAll(flights);
+        List<Flight> held = FlightStorage.getInstance().getSnapshot();
+        runAll(executor, thread -> {
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < perThread; i++) {
+                    String id = String.format("STR%03d", thread * perThread + i);
+                    Flight flight = FlightStorage.getInstance().get(id);
+                    FlightStorage.getInstance().reschedule(flight, flight.getDepartureDate().plusMinutes(37 * (thread + 1)));
+                }
+            }
+        });
+        List<Flight> snapshot = FlightStorage.getInstance().getSnapshot();
+        HashSet<String> seen = new HashSet<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            check(seen.add(snapshot.get(i).getId()), "flight " + snapshot.get(i).getId() + " is in the snapshot twice");
+            check(i == 0 || !snapshot.get(i).getDepartureDate().isBefore(snapshot.get(i - 1).getDepartureDate()), "flight snapshot is out of order at " + i);
+        }
+        check(seen.size() == THREADS * perThread, "flight snapshot has " + seen.size() + " flights");
+        for (int i = 0; i < held.size(); i++) {
+            check(held.get(i).getDepartureDate().equals(start.plusHours(i)), "a snapshot taken before the reschedules changed at " + i);
+        }
+        for (Flight flight : snapshot) {
+            check(FlightStorage.getInstance().get(flight.getId()).getDepartureDate().equals(flight.getDepartureDate()), "flight " + flight.getId() + " differs between index and snapshot");
+        }
+        check(plane.getNumFlights() == THREADS * perThread, "plane " + plane.getId() + " lists " + plane.getNumFlights() + " flights");
+        System.out.println("concurrent reschedules: ok");
+    }
+
+    private static void checkPassengers(int expected) {
+        List<Passenger> snapshot = PassengerStorage.getInstance().getSnapshot();
+        check(PassengerStorage.getInstance().getAll().size() == expected, "passenger index has " + PassengerStorage.getInstance().getAll().size() + " passengers, expected " + expected);
+        check(snapshot.size() == expected, "passenger snapshot has " + snapshot.size() + " passengers, expected " + expected);
+        for (int i = 1; i < snapshot.size(); i++) {
+            check(snapshot.get(i - 1).getId() < snapshot.get(i).getId(), "passenger snapshot is out of order at " + i);
+        }
+    }
+
+    private static void runAll(ExecutorService executor, Task task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int index = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(index);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private static Passenger passenger(long id, String lastname) {
+        return new Passenger(id, "Stress", lastname, LocalDate.of(2000, 1, 1), 57, 3000000000L, "Colombia");
+    }
+
+    private static String planeId(int i) {
+        return String.format("SP%05d", i);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private interface Task {
+        void run(int thread) throws Exception;
+    }
+}